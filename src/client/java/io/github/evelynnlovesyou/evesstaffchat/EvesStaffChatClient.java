@@ -1,10 +1,21 @@
 package io.github.evelynnlovesyou.evesstaffchat;
 
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
+import net.fabricmc.fabric.api.client.rendering.v1.HudRenderCallback;
+
+import io.github.evelynnlovesyou.evesstaffchat.client.StaffChatHud;
+import io.github.evelynnlovesyou.evesstaffchat.network.StaffChatPayload;
 
 public class EvesStaffChatClient implements ClientModInitializer {
 	@Override
 	public void onInitializeClient() {
-		// This entrypoint is suitable for setting up client-specific logic, such as rendering.
+		// Registering the receiver is what tells the server this client has the companion,
+		// staff messages then arrive as StaffChatPayload instead of system chat
+		ClientPlayNetworking.registerGlobalReceiver(StaffChatPayload.TYPE, (payload, context) -> StaffChatHud.add(payload));
+
+		HudRenderCallback.EVENT.register(StaffChatHud::render);
+		ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> StaffChatHud.clear());
 	}
-}
\ No newline at end of file
+}
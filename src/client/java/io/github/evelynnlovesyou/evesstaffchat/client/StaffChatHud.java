@@ -0,0 +1,115 @@
+package io.github.evelynnlovesyou.evesstaffchat.client;
+
+import io.github.evelynnlovesyou.evesstaffchat.network.StaffChatPayload;
+import net.minecraft.ChatFormatting;
+import net.minecraft.Util;
+import net.minecraft.client.DeltaTracker;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.screens.ChatScreen;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.util.FormattedCharSequence;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.List;
+
+// Staff messages from the companion payload, drawn in the top left corner apart from public chat.
+// New messages stay for a few seconds and then fade out; with the chat screen open the recent
+// history is shown, like a staff tab. Client thread only.
+public class StaffChatHud {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
+    private static final int MAX_MESSAGES = 50;
+    private static final int RECENT_LINES = 6;
+    private static final int HISTORY_LINES = 20;
+    private static final long VISIBLE_MILLIS = 10_000;
+    private static final long FADE_MILLIS = 1_000;
+    private static final int MAX_WIDTH = 280;
+    private static final int MARGIN = 4;
+
+    private record Message(Component text, long receivedMillis) {
+    }
+
+    // Oldest first
+    private static final ArrayDeque<Message> MESSAGES = new ArrayDeque<>();
+
+    // Utility class - prevent instantiation
+    private StaffChatHud() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static void add(StaffChatPayload payload) {
+        if (MESSAGES.size() == MAX_MESSAGES) {
+            MESSAGES.removeFirst();
+        }
+        MESSAGES.addLast(new Message(format(payload), Util.getMillis()));
+    }
+
+    public static void clear() {
+        MESSAGES.clear();
+    }
+
+    // [12:30] [staff@lobby] Name: text
+    private static Component format(StaffChatPayload payload) {
+        String channel = payload.origin().isEmpty() ? payload.channel() : payload.channel() + "@" + payload.origin();
+        MutableComponent text = Component.literal("[" + TIME.format(Instant.ofEpochMilli(payload.timestamp())) + "] ")
+                .withStyle(ChatFormatting.DARK_GRAY);
+        text.append(Component.literal("[" + channel + "] ").withStyle(ChatFormatting.GOLD));
+        text.append(Component.literal(payload.senderName()).withStyle(ChatFormatting.AQUA));
+        text.append(Component.literal(": " + payload.text()).withStyle(ChatFormatting.WHITE));
+        return text;
+    }
+
+    public static void render(GuiGraphics graphics, DeltaTracker deltaTracker) {
+        Minecraft minecraft = Minecraft.getInstance();
+        if (MESSAGES.isEmpty() || minecraft.options.hideGui || minecraft.getDebugOverlay().showDebugScreen()) {
+            return;
+        }
+
+        boolean history = minecraft.screen instanceof ChatScreen;
+        int maxLines = history ? HISTORY_LINES : RECENT_LINES;
+        long now = Util.getMillis();
+        Font font = minecraft.font;
+
+        // Walk back from the newest message until the line budget is used up, then draw top-down
+        ArrayDeque<FormattedCharSequence> lines = new ArrayDeque<>();
+        ArrayDeque<Integer> alphas = new ArrayDeque<>();
+        for (Iterator<Message> it = MESSAGES.descendingIterator(); it.hasNext() && lines.size() < maxLines; ) {
+            Message message = it.next();
+            int alpha = history ? 255 : alpha(now - message.receivedMillis());
+            if (alpha <= 0) {
+                break;
+            }
+            List<FormattedCharSequence> wrapped = font.split(message.text(), MAX_WIDTH);
+            for (int i = wrapped.size() - 1; i >= 0 && lines.size() < maxLines; i--) {
+                lines.addFirst(wrapped.get(i));
+                alphas.addFirst(alpha);
+            }
+        }
+
+        int y = MARGIN;
+        Iterator<Integer> alphaIt = alphas.iterator();
+        for (FormattedCharSequence line : lines) {
+            int alpha = alphaIt.next();
+            graphics.fill(MARGIN - 2, y - 1, MARGIN + font.width(line) + 2, y + font.lineHeight, (alpha / 2) << 24);
+            graphics.drawString(font, line, MARGIN, y, 0xFFFFFF | (alpha << 24));
+            y += font.lineHeight + 1;
+        }
+    }
+
+    private static int alpha(long age) {
+        if (age >= VISIBLE_MILLIS) {
+            return 0;
+        }
+        long left = VISIBLE_MILLIS - age;
+        int alpha = left >= FADE_MILLIS ? 255 : (int) (255 * left / FADE_MILLIS);
+        // The font renderer draws text with an alpha below 4 fully opaque
+        return alpha < 4 ? 0 : alpha;
+    }
+}
@@ -0,0 +1,123 @@
+package io.github.evelynnlovesyou.evesstaffchat.benchmark;
+
+import com.mojang.authlib.GameProfile;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffRoster;
+import io.github.evelynnlovesyou.evesstaffchat.permissions.LuckPermsPermissionProvider;
+import io.github.evelynnlovesyou.evesstaffchat.permissions.OpPermissionProvider;
+import io.github.evelynnlovesyou.evesstaffchat.permissions.PermissionService;
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.cacheddata.CachedDataManager;
+import net.luckperms.api.cacheddata.CachedPermissionData;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.model.user.UserManager;
+import net.luckperms.api.util.Tristate;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerGamePacketListenerImpl;
+import net.minecraft.server.players.PlayerList;
+import net.minecraft.world.entity.player.ChatVisiblity;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+// A synthetic server: stub-only mocks for the player list and connections (packet sends are no-ops)
+// and a fake LuckPerms where every staffEvery-th player has all staff permissions.
+final class FakeServer {
+
+    static {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    final MinecraftServer server;
+    final List<ServerPlayer> players = new ArrayList<>();
+    final List<ServerPlayer> staff = new ArrayList<>();
+    final List<ServerPlayer> regular = new ArrayList<>();
+    private final Map<UUID, ServerPlayer> byId = new HashMap<>();
+    private final Map<UUID, User> users = new HashMap<>();
+    private final LuckPerms luckPerms;
+
+    FakeServer(int playerCount, int staffEvery) throws ReflectiveOperationException {
+        server = stub(MinecraftServer.class);
+        PlayerList playerList = stub(PlayerList.class);
+        when(server.getPlayerList()).thenReturn(playerList);
+        when(playerList.getPlayers()).thenReturn(players);
+        when(playerList.getPlayer(any(UUID.class))).thenAnswer(invocation -> byId.get(invocation.<UUID>getArgument(0)));
+        when(playerList.isOp(any(GameProfile.class))).thenReturn(false);
+
+        User staffUser = fakeUser(Tristate.TRUE);
+        User regularUser = fakeUser(Tristate.FALSE);
+        UserManager userManager = stub(UserManager.class);
+        when(userManager.getUser(any(UUID.class))).thenAnswer(invocation -> users.get(invocation.<UUID>getArgument(0)));
+        luckPerms = stub(LuckPerms.class);
+        when(luckPerms.getUserManager()).thenReturn(userManager);
+
+        Field serverField = ServerPlayer.class.getField("server");
+        serverField.setAccessible(true);
+        for (int i = 0; i < playerCount; i++) {
+            UUID id = new UUID(0L, i);
+            boolean isStaff = i % staffEvery == 0;
+
+            ServerPlayer player = stub(ServerPlayer.class);
+            when(player.getGameProfile()).thenReturn(new GameProfile(id, "player" + i));
+            when(player.getChatVisibility()).thenReturn(ChatVisiblity.FULL);
+            serverField.set(player, server);
+            player.connection = stub(ServerGamePacketListenerImpl.class);
+
+            players.add(player);
+            byId.put(id, player);
+            users.put(id, isStaff ? staffUser : regularUser);
+            (isStaff ? staff : regular).add(player);
+        }
+    }
+
+    // Points the mod at this server's fake permissions and rebuilds the receiver roster
+    void install() throws ReflectiveOperationException {
+        ModConfig.useDefaults();
+
+        PermissionService.useProviders(new LuckPermsPermissionProvider(luckPerms), new OpPermissionProvider());
+        StaffRoster.rebuild(server);
+    }
+
+    // Routes players to the default channel without going through the persisted toggle store
+    @SuppressWarnings("unchecked")
+    void setToggled(List<ServerPlayer> toggled) throws ReflectiveOperationException {
+        Field field = StaffChatManager.class.getDeclaredField("ROUTED");
+        field.setAccessible(true);
+        Map<UUID, String> routed = (Map<UUID, String>) field.get(null);
+        routed.clear();
+        for (ServerPlayer player : toggled) {
+            routed.put(player.getGameProfile().getId(), ModConfig.getDefaultChannel().id());
+        }
+    }
+
+    private static User fakeUser(Tristate result) {
+        CachedPermissionData permissionData = stub(CachedPermissionData.class);
+        when(permissionData.checkPermission(anyString())).thenReturn(result);
+        CachedDataManager cachedData = stub(CachedDataManager.class);
+        when(cachedData.getPermissionData()).thenReturn(permissionData);
+        User user = stub(User.class);
+        when(user.getCachedData()).thenReturn(cachedData);
+        return user;
+    }
+
+    // stubOnly mocks don't record invocations, so they don't grow while a benchmark runs
+    private static <T> T stub(Class<T> type) {
+        return mock(type, withSettings().stubOnly());
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.evelynnlovesyou.evesstaffchat.benchmark;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.game.ClientboundSystemChatPacket;
+import net.minecraft.server.level.ServerPlayer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Server-side cost of one staff message by player count. Connections are stubs, so this
+// measures roster lookup, formatting and packet construction, not Netty encoding.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FanOutBenchmark {
+
+    @Param({"10", "100", "300", "1000"})
+    public int players;
+
+    // Every staffEvery-th player is staff
+    @Param({"10"})
+    public int staffEvery;
+
+    private FakeServer fake;
+    private ServerPlayer sender;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        fake = new FakeServer(players, staffEvery);
+        fake.install();
+        sender = fake.staff.get(0);
+    }
+
+    @Benchmark
+    public void sendStaffMessage() {
+        StaffChatManager.sendStaffMessage(sender, "benchmark message");
+    }
+
+    // The original fan-out: permission check for every online player and a packet per receiver
+    @Benchmark
+    public void scanAllPlayers() {
+        Component component = StaffChatManager.formatStaffMessage(ModConfig.getDefaultChannel(),
+                StaffChatManager.messageContext(sender, ModConfig.getDefaultChannel(), "benchmark message"));
+        for (ServerPlayer player : fake.players) {
+            if (StaffChatManager.hasPermission(player, ModConfig.getDefaultChannel().receivePermission())) {
+                player.connection.send(new ClientboundSystemChatPacket(component, false));
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.evelynnlovesyou.evesstaffchat.benchmark;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ChannelConfig;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.format.MessageContext;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import net.minecraft.network.chat.Component;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Filling in a compiled channel format and creating the component
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FormatBenchmark {
+
+    @Param({"16", "256"})
+    public int messageLength;
+
+    private ChannelConfig channel;
+    private String message;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        new FakeServer(1, 1).install();
+        channel = ModConfig.getDefaultChannel();
+        message = "x".repeat(messageLength);
+    }
+
+    @Benchmark
+    public Component formatStaffMessage() {
+        return StaffChatManager.formatStaffMessage(channel, new MessageContext("player0", null, channel.id(), "", "", 0L, message));
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.evelynnlovesyou.evesstaffchat.benchmark;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import io.github.evelynnlovesyou.evesstaffchat.permissions.PermissionService;
+import net.minecraft.server.level.ServerPlayer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PermissionBenchmark {
+
+    private ServerPlayer staff;
+    private ServerPlayer regular;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        FakeServer fake = new FakeServer(10, 2);
+        fake.install();
+        staff = fake.staff.get(0);
+        regular = fake.regular.get(0);
+    }
+
+    // Granted by the permission backend, answered from the decision cache after the first call
+    @Benchmark
+    public boolean staffHasPermission() {
+        return StaffChatManager.hasPermission(staff, ModConfig.getDefaultChannel().receivePermission());
+    }
+
+    // Denied by the permission backend, answered from the decision cache after the first call
+    @Benchmark
+    public boolean regularHasPermission() {
+        return StaffChatManager.hasPermission(regular, ModConfig.getDefaultChannel().receivePermission());
+    }
+
+    // Granted by the permission backend without the cache
+    @Benchmark
+    public boolean staffUncached() {
+        return PermissionService.evaluate(staff, ModConfig.getDefaultChannel().receivePermission());
+    }
+
+    // Denied by the permission backend without the cache, so it also pays for the OP provider
+    @Benchmark
+    public boolean regularUncached() {
+        return PermissionService.evaluate(regular, ModConfig.getDefaultChannel().receivePermission());
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.evelynnlovesyou.evesstaffchat.benchmark;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ChannelConfig;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import io.github.evelynnlovesyou.evesstaffchat.pipeline.ChatPipeline;
+import net.minecraft.network.chat.PlayerChatMessage;
+import net.minecraft.server.level.ServerPlayer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// getRoutedChannel and the chat pipeline run for every public chat message on the server
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ToggleBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int players;
+
+    private ServerPlayer toggled;
+    private ServerPlayer untoggled;
+    private PlayerChatMessage message;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        FakeServer fake = new FakeServer(players, 10);
+        fake.install();
+        fake.setToggled(fake.staff);
+        toggled = fake.staff.get(0);
+        untoggled = fake.regular.get(0);
+        message = PlayerChatMessage.system("hello");
+        ChatPipeline.rebuild();
+    }
+
+    @Benchmark
+    public ChannelConfig toggledPlayer() {
+        return StaffChatManager.getRoutedChannel(toggled);
+    }
+
+    @Benchmark
+    public ChannelConfig untoggledPlayer() {
+        return StaffChatManager.getRoutedChannel(untoggled);
+    }
+
+    // The fast path for ordinary chat: no stage applies, the text is never read
+    @Benchmark
+    public boolean pipelineUntoggledPlayer() {
+        return ChatPipeline.allow(message, untoggled);
+    }
+}
@@ -8,9 +8,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.github.evelynnlovesyou.evesstaffchat.commands.StaffChatCommand;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
 import io.github.evelynnlovesyou.evesstaffchat.events.PlayerConnectionHandler;
 import io.github.evelynnlovesyou.evesstaffchat.events.StaffChatMessageHandler;
 import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import io.github.evelynnlovesyou.evesstaffchat.network.CompanionClients;
 
 public class EvesStaffChat implements ModInitializer {
 	public static final String MOD_ID = "eves-staff-chat";
@@ -25,6 +27,9 @@ public class EvesStaffChat implements ModInitializer {
 
 		LOGGER.info("Initialising " + MOD_ID + " v1.0.0");
 
+		// Load and check the config before anything reads it
+		ModConfig.init();
+
 		// Register commands
 		CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> {
 			StaffChatCommand.register(dispatcher);
@@ -32,9 +37,11 @@ public class EvesStaffChat implements ModInitializer {
 
 		// Register event handlers
 		PlayerConnectionHandler.register();
+		CompanionClients.register();
 		StaffChatMessageHandler.register();
 
-		// Initialize LuckPerms after server has started
-		ServerLifecycleEvents.SERVER_STARTED.register(server -> StaffChatManager.init());
+		// Initialize LuckPerms and the staff roster after server has started
+		ServerLifecycleEvents.SERVER_STARTED.register(StaffChatManager::init);
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> StaffChatManager.shutdown());
 	}
 }
\ No newline at end of file
@@ -0,0 +1,80 @@
+package io.github.evelynnlovesyou.evesstaffchat.bridge;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/*
+ * Frame layout (big endian):
+ *   int    payload length
+ *   byte   version
+ *   short  message count
+ *   per message: utf origin, long sequence, long timestamp, long uuid msb, long uuid lsb, utf sender, utf channel, utf text
+ */
+public class BridgeCodec {
+
+    public static final int MAX_FRAME_BYTES = 1 << 20;
+    private static final byte VERSION = 2;
+
+    // Utility class - prevent instantiation
+    private BridgeCodec() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static byte[] encode(List<BridgeMessage> batch) throws IOException {
+        if (batch.size() > 0xFFFF) {
+            throw new IOException("Bridge batch of " + batch.size() + " messages does not fit in one frame");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + batch.size() * 96);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(0);
+        out.writeByte(VERSION);
+        out.writeShort(batch.size());
+        for (BridgeMessage message : batch) {
+            out.writeUTF(message.origin());
+            out.writeLong(message.sequence());
+            out.writeLong(message.timestamp());
+            out.writeLong(message.senderId().getMostSignificantBits());
+            out.writeLong(message.senderId().getLeastSignificantBits());
+            out.writeUTF(message.senderName());
+            out.writeUTF(message.channel());
+            out.writeUTF(message.text());
+        }
+        out.flush();
+
+        byte[] frame = bytes.toByteArray();
+        int length = frame.length - 4;
+        frame[0] = (byte) (length >>> 24);
+        frame[1] = (byte) (length >>> 16);
+        frame[2] = (byte) (length >>> 8);
+        frame[3] = (byte) length;
+        return frame;
+    }
+
+    public static List<BridgeMessage> decode(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        byte version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported bridge frame version " + version);
+        }
+
+        int count = in.readUnsignedShort();
+        List<BridgeMessage> messages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String origin = in.readUTF();
+            long sequence = in.readLong();
+            long timestamp = in.readLong();
+            UUID senderId = new UUID(in.readLong(), in.readLong());
+            String senderName = in.readUTF();
+            String channel = in.readUTF();
+            String text = in.readUTF();
+            messages.add(new BridgeMessage(origin, sequence, timestamp, senderId, senderName, channel, text));
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.evelynnlovesyou.evesstaffchat.bridge;
+
+import java.util.UUID;
+
+// A staff message as it travels between servers. (origin, sequence) identifies it uniquely.
+public record BridgeMessage(String origin, long sequence, long timestamp, UUID senderId, String senderName, String channel, String text) {
+}
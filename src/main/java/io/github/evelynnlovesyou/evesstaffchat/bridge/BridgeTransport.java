@@ -0,0 +1,19 @@
+package io.github.evelynnlovesyou.evesstaffchat.bridge;
+
+public interface BridgeTransport extends AutoCloseable {
+
+    // Start accepting/connecting in the background. Must not block the caller.
+    void start(FrameListener listener);
+
+    // Write a complete length-prefixed frame to every connected peer
+    void send(byte[] frame);
+
+    @Override
+    void close();
+
+    @FunctionalInterface
+    interface FrameListener {
+        // Called on a transport thread with the frame payload (length prefix stripped)
+        void onFrame(byte[] payload);
+    }
+}
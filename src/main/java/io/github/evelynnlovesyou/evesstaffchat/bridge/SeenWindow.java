@@ -0,0 +1,64 @@
+package io.github.evelynnlovesyou.evesstaffchat.bridge;
+
+import java.util.Arrays;
+
+// Replay window for one origin server: the highest sequence accepted plus a bitmap of the WINDOW
+// sequences up to it. Peers flush independently, so a relayed copy can overtake the direct one;
+// the older message is still accepted once as long as it is within the window. Not thread safe,
+// except for the idle check.
+final class SeenWindow {
+
+    static final int WINDOW = 1024;
+
+    private final long[] seen = new long[WINDOW / 64];
+    private long highest;
+    private volatile long lastUsedNanos;
+
+    SeenWindow(long first, long now) {
+        highest = first;
+        mark(first);
+        lastUsedNanos = now;
+    }
+
+    // True the first time a sequence is offered; false for duplicates and anything older than the window
+    boolean accept(long sequence, long now) {
+        lastUsedNanos = now;
+        if (sequence > highest) {
+            if (sequence - highest >= WINDOW) {
+                Arrays.fill(seen, 0);
+            } else {
+                for (long skipped = highest + 1; skipped < sequence; skipped++) {
+                    clear(skipped);
+                }
+            }
+            highest = sequence;
+            mark(sequence);
+            return true;
+        }
+        if (highest - sequence >= WINDOW || isMarked(sequence)) {
+            return false;
+        }
+        mark(sequence);
+        return true;
+    }
+
+    boolean idleSince(long cutoffNanos) {
+        return lastUsedNanos - cutoffNanos < 0;
+    }
+
+    // Bit positions wrap around, so a sequence shares its slot with the one WINDOW below it
+    private void mark(long sequence) {
+        int slot = Math.floorMod(sequence, WINDOW);
+        seen[slot >>> 6] |= 1L << slot;
+    }
+
+    private void clear(long sequence) {
+        int slot = Math.floorMod(sequence, WINDOW);
+        seen[slot >>> 6] &= ~(1L << slot);
+    }
+
+    private boolean isMarked(long sequence) {
+        int slot = Math.floorMod(sequence, WINDOW);
+        return (seen[slot >>> 6] & (1L << slot)) != 0;
+    }
+}
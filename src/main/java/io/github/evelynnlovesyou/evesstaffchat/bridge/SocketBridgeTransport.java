@@ -0,0 +1,218 @@
+package io.github.evelynnlovesyou.evesstaffchat.bridge;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// TCP or Unix domain socket transport. Every connection gets its own reader thread and
+// outgoing peers reconnect with backoff, so nothing here ever runs on the server thread.
+public class SocketBridgeTransport implements BridgeTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final long MIN_RECONNECT_MILLIS = 1_000;
+    private static final long MAX_RECONNECT_MILLIS = 30_000;
+
+    private final boolean unixSocket;
+    private final String listen;
+    private final List<String> peers;
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+    private volatile ServerSocketChannel serverChannel;
+
+    public SocketBridgeTransport(boolean unixSocket, String listen, List<String> peers) {
+        this.unixSocket = unixSocket;
+        this.listen = listen;
+        this.peers = List.copyOf(peers);
+    }
+
+    @Override
+    public synchronized void start(FrameListener listener) {
+        running = true;
+
+        if (!listen.isBlank()) {
+            startThread("eves-staff-chat-bridge-accept", () -> acceptLoop(listener));
+        }
+        for (String peer : peers) {
+            startThread("eves-staff-chat-bridge-" + peer, () -> connectLoop(peer, listener));
+        }
+    }
+
+    @Override
+    public void send(byte[] frame) {
+        for (SocketChannel channel : connections) {
+            try {
+                // Writers are serialised per channel; reads use the channel's separate read lock
+                synchronized (channel) {
+                    ByteBuffer buffer = ByteBuffer.wrap(frame);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            } catch (IOException e) {
+                LOGGER.warn("Dropping staff chat bridge connection: {}", e.getMessage());
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+
+        ServerSocketChannel current = serverChannel;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException ignored) {
+                // Already closed
+            }
+        }
+        for (SocketChannel channel : connections) {
+            closeQuietly(channel);
+        }
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        threads.clear();
+
+        if (unixSocket && !listen.isBlank()) {
+            try {
+                Files.deleteIfExists(Path.of(listen));
+            } catch (IOException ignored) {
+                // Stale socket file is removed again on the next start
+            }
+        }
+    }
+
+    private void startThread(String name, Runnable task) {
+        threads.add(newDaemonThread(name, task));
+    }
+
+    private static Thread newDaemonThread(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    private void acceptLoop(FrameListener listener) {
+        try {
+            SocketAddress address = parseAddress(listen);
+            if (unixSocket) {
+                Files.deleteIfExists(Path.of(listen));
+            }
+            ServerSocketChannel channel = ServerSocketChannel.open(unixSocket ? StandardProtocolFamily.UNIX : StandardProtocolFamily.INET);
+            channel.bind(address);
+            serverChannel = channel;
+            LOGGER.info("Staff chat bridge listening on {}", listen);
+
+            while (running) {
+                SocketChannel client = channel.accept();
+                // Accepted connections end when close() closes their channel
+                newDaemonThread("eves-staff-chat-bridge-peer", () -> readLoop(client, listener));
+            }
+        } catch (IOException e) {
+            if (running) {
+                LOGGER.error("Staff chat bridge listener on {} stopped", listen, e);
+            }
+        }
+    }
+
+    private void connectLoop(String peer, FrameListener listener) {
+        long backoff = MIN_RECONNECT_MILLIS;
+        while (running) {
+            try {
+                SocketChannel channel = SocketChannel.open(parseAddress(peer));
+                LOGGER.info("Staff chat bridge connected to {}", peer);
+                backoff = MIN_RECONNECT_MILLIS;
+                readLoop(channel, listener);
+            } catch (IOException e) {
+                LOGGER.debug("Staff chat bridge could not reach {}: {}", peer, e.getMessage());
+            }
+
+            if (!running) {
+                return;
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoff = Math.min(backoff * 2, MAX_RECONNECT_MILLIS);
+        }
+    }
+
+    private void readLoop(SocketChannel channel, FrameListener listener) {
+        connections.add(channel);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(4);
+            while (running) {
+                header.clear();
+                readFully(channel, header);
+                int length = header.getInt(0);
+                if (length <= 0 || length > BridgeCodec.MAX_FRAME_BYTES) {
+                    throw new IOException("Invalid bridge frame length " + length);
+                }
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(channel, payload);
+                listener.onFrame(payload.array());
+            }
+        } catch (IOException e) {
+            if (running) {
+                LOGGER.info("Staff chat bridge connection closed: {}", e.getMessage());
+            }
+        } finally {
+            closeQuietly(channel);
+        }
+    }
+
+    private void closeQuietly(SocketChannel channel) {
+        connections.remove(channel);
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Nothing left to clean up
+        }
+    }
+
+    private SocketAddress parseAddress(String value) throws IOException {
+        if (unixSocket) {
+            return UnixDomainSocketAddress.of(value);
+        }
+
+        int separator = value.lastIndexOf(':');
+        if (separator <= 0) {
+            throw new IOException("Bridge address must be host:port, got " + value);
+        }
+        try {
+            return new InetSocketAddress(value.substring(0, separator), Integer.parseInt(value.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid port in bridge address " + value, e);
+        }
+    }
+
+    private static void readFully(SocketChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new EOFException("end of stream");
+            }
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package io.github.evelynnlovesyou.evesstaffchat.bridge;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ConfigSnapshot;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import net.minecraft.server.MinecraftServer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class StaffChatBridge {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final int OUTBOUND_CAPACITY = 4096;
+
+    // Seeded from the clock so a restarted server never reuses sequence numbers peers have already seen
+    private static final AtomicLong SEQUENCE = new AtomicLong(System.currentTimeMillis() * 1000);
+
+    // Replay window per origin server - a sequence it has already accepted is a duplicate or a loop.
+    // Origins that go quiet are forgotten after SEEN_IDLE_NANOS.
+    private static final Map<String, SeenWindow> LAST_SEEN = new ConcurrentHashMap<>();
+    private static final long SEEN_IDLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final AtomicLong NEXT_SEEN_PRUNE = new AtomicLong(System.nanoTime());
+
+    private static volatile MinecraftServer server;
+    private static volatile String serverId;
+    private static volatile BridgeTransport transport;
+    private static volatile BlockingQueue<BridgeMessage> outbound;
+    private static volatile Thread flusher;
+
+    // Utility class - prevent instantiation
+    private StaffChatBridge() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static synchronized void start(MinecraftServer minecraftServer) {
+        ConfigSnapshot config = ModConfig.current();
+        if (!config.bridgeEnabled) {
+            return;
+        }
+
+        server = minecraftServer;
+        serverId = config.bridgeServerId.isBlank()
+                ? UUID.randomUUID().toString().substring(0, 8)
+                : config.bridgeServerId;
+        if (config.bridgeServerId.isBlank()) {
+            LOGGER.warn("bridge_server_id is not set - using random id {} for this session", serverId);
+        }
+
+        BlockingQueue<BridgeMessage> queue = new ArrayBlockingQueue<>(OUTBOUND_CAPACITY);
+        BridgeTransport created = createTransport(config);
+        created.start(StaffChatBridge::onFrame);
+
+        int batchSize = Math.max(1, config.bridgeBatchSize);
+        long flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.bridgeFlushMillis));
+        Thread thread = new Thread(() -> flushLoop(queue, created, batchSize, flushNanos), "eves-staff-chat-bridge-flush");
+        thread.setDaemon(true);
+
+        outbound = queue;
+        transport = created;
+        flusher = thread;
+        thread.start();
+        LOGGER.info("Staff chat bridge started as '{}' ({})", serverId, config.bridgeTransport);
+    }
+
+    public static synchronized void stop() {
+        outbound = null;
+
+        Thread thread = flusher;
+        flusher = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+
+        BridgeTransport current = transport;
+        transport = null;
+        if (current != null) {
+            current.close();
+        }
+        server = null;
+    }
+
+    public static synchronized void restart(MinecraftServer minecraftServer) {
+        stop();
+        start(minecraftServer);
+    }
+
+    // This server's id as other servers see it, bridge_server_id when the bridge is not running
+    public static String serverId() {
+        String id = serverId;
+        return id != null ? id : ModConfig.current().bridgeServerId;
+    }
+
+    // Queue a locally sent message for the other servers. Never blocks.
+    public static void publish(UUID senderId, String senderName, String channel, String text) {
+        BlockingQueue<BridgeMessage> queue = outbound;
+        if (queue == null) {
+            return;
+        }
+
+        BridgeMessage message = new BridgeMessage(serverId, SEQUENCE.incrementAndGet(), System.currentTimeMillis(), senderId, senderName, channel, text);
+        if (!queue.offer(message)) {
+            LOGGER.warn("Staff chat bridge outbound queue full - dropped message from {}", senderName);
+        }
+    }
+
+    private static BridgeTransport createTransport(ConfigSnapshot config) {
+        // bridge_transport is already checked and lower-cased by the config
+        return new SocketBridgeTransport(config.bridgeTransport.equals("unix"), config.bridgeListen, config.bridgePeers);
+    }
+
+    // Waits for the first message, then collects more until the batch is full or the flush interval passes
+    private static void flushLoop(BlockingQueue<BridgeMessage> queue, BridgeTransport target, int batchSize, long flushNanos) {
+        List<BridgeMessage> batch = new ArrayList<>(batchSize);
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + flushNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    BridgeMessage next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                try {
+                    target.send(BridgeCodec.encode(batch));
+                } catch (IOException e) {
+                    LOGGER.error("Failed to encode staff chat bridge batch", e);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException ignored) {
+            // Bridge stopped
+        }
+    }
+
+    private static void onFrame(byte[] payload) {
+        List<BridgeMessage> messages;
+        try {
+            messages = BridgeCodec.decode(payload);
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring malformed staff chat bridge frame: {}", e.getMessage());
+            return;
+        }
+
+        MinecraftServer current = server;
+        String localId = serverId;
+        BlockingQueue<BridgeMessage> queue = outbound;
+        for (BridgeMessage message : messages) {
+            if (message.origin().equals(localId) || !markSeen(message)) {
+                continue;
+            }
+
+            if (current != null) {
+                current.execute(() -> StaffChatManager.receiveRemoteMessage(current, message));
+            }
+            if (ModConfig.current().bridgeRelay && queue != null) {
+                queue.offer(message);
+            }
+        }
+    }
+
+    private static boolean markSeen(BridgeMessage message) {
+        long sequence = message.sequence();
+        long now = System.nanoTime();
+        boolean[] accepted = new boolean[1];
+        LAST_SEEN.compute(message.origin(), (origin, window) -> {
+            if (window == null) {
+                accepted[0] = true;
+                return new SeenWindow(sequence, now);
+            }
+            accepted[0] = window.accept(sequence, now);
+            return window;
+        });
+
+        long next = NEXT_SEEN_PRUNE.get();
+        if (now - next >= 0 && NEXT_SEEN_PRUNE.compareAndSet(next, now + SEEN_IDLE_NANOS)) {
+            LAST_SEEN.values().removeIf(window -> window.idleSince(now - SEEN_IDLE_NANOS));
+        }
+        return accepted[0];
+    }
+}
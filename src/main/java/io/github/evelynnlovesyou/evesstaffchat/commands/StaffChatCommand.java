@@ -1,25 +1,42 @@
 package io.github.evelynnlovesyou.evesstaffchat.commands;
 
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
 import com.mojang.brigadier.arguments.StringArgumentType;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
 
 import net.minecraft.commands.CommandSourceStack;
 import net.minecraft.commands.Commands;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.network.chat.Component;
 
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatDispatcher;
 import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import io.github.evelynnlovesyou.evesstaffchat.config.ChannelConfig;
+import io.github.evelynnlovesyou.evesstaffchat.config.LocaleTable;
 import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
-import io.github.evelynnlovesyou.evesstaffchat.exceptions.ConfigLoadException;
+import io.github.evelynnlovesyou.evesstaffchat.history.HistoryPage;
+import io.github.evelynnlovesyou.evesstaffchat.history.JournalEntry;
+import io.github.evelynnlovesyou.evesstaffchat.history.StaffChatJournal;
+import io.github.evelynnlovesyou.evesstaffchat.metrics.Log2Histogram;
+import io.github.evelynnlovesyou.evesstaffchat.metrics.StaffChatMetrics;
+import io.github.evelynnlovesyou.evesstaffchat.watchlist.Watchlist;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
 import static com.mojang.brigadier.arguments.StringArgumentType.getString;
 
 public class StaffChatCommand {
 
     private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final DateTimeFormatter HISTORY_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
 
     // Utility class - prevent instantiation
     private StaffChatCommand() {
@@ -27,89 +44,222 @@ public class StaffChatCommand {
     }
 
     public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        // Channel commands are registered once at startup; a reload picks up changed permissions
+        // and formats, but new or renamed commands need a restart
+        for (ChannelConfig channel : ModConfig.current().channels) {
+            registerChannel(dispatcher, channel);
+        }
+
+        // Register admin commands: /evesstaffchat reload and /evesstaffchat stats
+        dispatcher.register(
+            Commands.literal("evesstaffchat")
+                .then(
+                    Commands.literal("stats")
+                        .executes(ctx -> showStats(ctx.getSource()))
+                )
+                .then(
+                    Commands.literal("reload")
+                        .executes(ctx -> reload(ctx.getSource()))
+                )
+        );
+    }
+
+    // The files are parsed and the services restarted on the config loader thread, so the tick never waits on them
+    private static int reload(CommandSourceStack source) {
+        if (!canUseReload(source)) {
+            sendToSource(source, "no_permission_reload", true);
+            return 0;
+        }
+
+        MinecraftServer server = source.getServer();
+        ModConfig.reloadAsync().thenApply(config -> {
+            Watchlist.load();
+            StaffChatManager.applyConfig(server, true);
+            return config;
+        }).whenComplete((config, error) -> server.execute(() -> {
+            if (error != null) {
+                LOGGER.error("Failed to reload staff chat configuration", error.getCause() != null ? error.getCause() : error);
+                sendToSource(source, "reload_failed", true);
+                return;
+            }
+            sendToSource(source, "reload_success", false);
+        }));
+        return 1;
+    }
+
+    private static void registerChannel(CommandDispatcher<CommandSourceStack> dispatcher, ChannelConfig registered) {
         dispatcher.register(
-            Commands.literal(ModConfig.COMMAND)
-                .executes(ctx -> {
-                    ServerPlayer player = ctx.getSource().getPlayerOrException();
-
-                    if (!canUseToggle(player)) {
-                        sendMessage(player, Component.literal(ModConfig.NO_PERMISSION_TOGGLE));
-                        return 0;
-                    }
-
-                    boolean enabled = StaffChatManager.toggle(player);
-                    sendMessage(player, Component.literal(enabled ? ModConfig.STAFFCHAT_ENABLED : ModConfig.STAFFCHAT_DISABLED));
-                    return 1;
-                })
+            Commands.literal(registered.command())
+                .executes(ctx -> toggle(ctx.getSource(), current(registered)))
+                .then(
+                    Commands.literal("history")
+                        .executes(ctx -> showHistory(ctx.getSource(), current(registered), 1))
+                        .then(
+                            Commands.argument("page", IntegerArgumentType.integer(1))
+                                .executes(ctx -> showHistory(ctx.getSource(), current(registered),
+                                        IntegerArgumentType.getInteger(ctx, "page")))
+                        )
+                )
+                .then(
+                    Commands.literal("search")
+                        .then(
+                            Commands.argument("query", StringArgumentType.greedyString())
+                                .executes(ctx -> searchHistory(ctx.getSource(), current(registered), getString(ctx, "query")))
+                        )
+                )
                 .then(
                     Commands.argument(ModConfig.ARG_MESSAGE, StringArgumentType.greedyString())
                         .executes(ctx -> {
                             ServerPlayer player = ctx.getSource().getPlayerOrException();
 
-                            if (!canUseSend(player)) {
-                                sendMessage(player, Component.literal(ModConfig.NO_PERMISSION_SEND));
-                                return 0;
-                            }
-
+                            // The send permission is checked on the dispatch thread
                             String message = getString(ctx, ModConfig.ARG_MESSAGE);
-                            StaffChatManager.sendStaffMessage(player, message);
+                            StaffChatDispatcher.dispatch(player, current(registered), message, StaffChatDispatcher.Source.COMMAND);
                             return 1;
                         })
                 )
         );
 
         // Register toggle-only command
-        dispatcher.register(
-            Commands.literal(ModConfig.COMMAND_TOGGLE)
-                .executes(ctx -> {
-                    ServerPlayer player = ctx.getSource().getPlayerOrException();
-
-                    if (!canUseToggle(player)) {
-                        sendMessage(player, Component.literal(ModConfig.NO_PERMISSION_TOGGLE));
-                        return 0;
-                    }
-
-                    boolean enabled = StaffChatManager.toggle(player);
-                    sendMessage(player, Component.literal(enabled ? ModConfig.STAFFCHAT_ENABLED : ModConfig.STAFFCHAT_DISABLED));
-                    return 1;
-                })
-        );
+        if (!registered.toggleCommand().isBlank()) {
+            dispatcher.register(
+                Commands.literal(registered.toggleCommand())
+                    .executes(ctx -> toggle(ctx.getSource(), current(registered)))
+            );
+        }
+    }
 
-        // Register admin command: /evesstaffchat reload
-        dispatcher.register(
-            Commands.literal("evesstaffchat")
-                .then(
-                    Commands.literal("reload")
-                        .executes(ctx -> {
-                            CommandSourceStack source = ctx.getSource();
-
-                            if (!canUseReload(source)) {
-                                sendToSource(source, Component.literal(ModConfig.NO_PERMISSION_RELOAD), true);
-                                return 0;
-                            }
-
-                            try {
-                                ModConfig.reload();
-                                sendToSource(source, Component.literal(ModConfig.RELOAD_SUCCESS), false);
-                                return 1;
-                            } catch (ConfigLoadException e) {
-                                LOGGER.error("Failed to reload staff chat configuration", e);
-                                sendToSource(source, Component.literal(ModConfig.RELOAD_FAILED), true);
-                                return 0;
-                            }
-                        })
-                )
-        );
+    // Latest settings for a channel registered at startup, or the startup settings if a reload removed it
+    private static ChannelConfig current(ChannelConfig registered) {
+        ChannelConfig channel = ModConfig.getChannel(registered.id());
+        return channel != null ? channel : registered;
+    }
+
+    private static int toggle(CommandSourceStack source, ChannelConfig channel) throws CommandSyntaxException {
+        ServerPlayer player = source.getPlayerOrException();
+
+        if (!canUseToggle(player, channel)) {
+            sendMessage(player, "no_permission_toggle");
+            return 0;
+        }
+
+        boolean enabled = StaffChatManager.toggle(player, channel);
+        LocaleTable locales = ModConfig.current().locales;
+        sendMessage(player, locales.component(locales.localeOf(player), enabled ? "staffchat_enabled" : "staffchat_disabled", channel.id()));
+        return 1;
     }
 
-    private static void sendMessage(ServerPlayer player, Component component) {
-        if (ModConfig.USE_ACTION_BAR) {
+    // Journal lookups run on the journal thread; results are sent back on the server thread
+    private static int showHistory(CommandSourceStack source, ChannelConfig channel, int page) {
+        if (!canUseHistory(source, channel)) {
+            sendToSource(source, "no_permission_history", true);
+            return 0;
+        }
+
+        StaffChatJournal.history(channel.id(), page).thenAccept(result -> source.getServer().execute(() -> sendHistory(source,
+                message(source, "history_header")
+                        .replace("%page%", String.valueOf(result.page()))
+                        .replace("%pages%", String.valueOf(result.pages())),
+                result)));
+        return 1;
+    }
+
+    private static int searchHistory(CommandSourceStack source, ChannelConfig channel, String query) {
+        if (!canUseHistory(source, channel)) {
+            sendToSource(source, "no_permission_history", true);
+            return 0;
+        }
+
+        StaffChatJournal.search(channel.id(), query).thenAccept(result -> source.getServer().execute(() -> sendHistory(source,
+                message(source, "search_header").replace("%query%", query),
+                result)));
+        return 1;
+    }
+
+    private static void sendHistory(CommandSourceStack source, String header, HistoryPage result) {
+        if (result.entries().isEmpty()) {
+            source.sendSystemMessage(Component.literal(message(source, "history_empty")));
+            return;
+        }
+
+        source.sendSystemMessage(Component.literal(header));
+        String entryFormat = message(source, "history_entry");
+        for (JournalEntry entry : result.entries()) {
+            source.sendSystemMessage(Component.literal(entryFormat
+                    .replace("%time%", HISTORY_TIME.format(Instant.ofEpochMilli(entry.timestamp())))
+                    .replace("%server%", entry.origin())
+                    .replace("%channel%", entry.channel())
+                    .replace("%player%", entry.senderName())
+                    .replace("%message%", entry.text())));
+        }
+    }
+
+    private static int showStats(CommandSourceStack source) {
+        if (!canUseStats(source)) {
+            sendToSource(source, "no_permission_stats", true);
+            return 0;
+        }
+
+        source.sendSystemMessage(Component.literal(message(source, "stats_header")));
+        source.sendSystemMessage(Component.literal(message(source, "stats_messages")
+                .replace("%command%", String.valueOf(StaffChatMetrics.COMMAND_MESSAGES.sum()))
+                .replace("%toggled%", String.valueOf(StaffChatMetrics.TOGGLED_MESSAGES.sum()))
+                .replace("%rate_limited%", String.valueOf(StaffChatMetrics.RATE_LIMITED.sum()))
+                .replace("%dropped%", String.valueOf(StaffChatMetrics.DISPATCH_DROPPED.sum()))));
+        source.sendSystemMessage(Component.literal(message(source, "stats_watchlist")
+                .replace("%hits%", String.valueOf(StaffChatMetrics.WATCHLIST_HITS.sum()))));
+        source.sendSystemMessage(Component.literal(message(source, "stats_webhook")
+                .replace("%sent%", String.valueOf(StaffChatMetrics.WEBHOOK_SENT.sum()))
+                .replace("%dropped%", String.valueOf(StaffChatMetrics.WEBHOOK_DROPPED.sum()))));
+        source.sendSystemMessage(Component.literal(message(source, "stats_recipients")
+                .replace("%avg%", decimal(average(StaffChatMetrics.RECIPIENTS)))
+                .replace("%p99%", String.valueOf(StaffChatMetrics.RECIPIENTS.quantile(0.99)))));
+        source.sendSystemMessage(Component.literal(message(source, "stats_permission_cache")
+                .replace("%hits%", String.valueOf(StaffChatMetrics.PERMISSION_CACHE_HITS.sum()))
+                .replace("%misses%", String.valueOf(StaffChatMetrics.PERMISSION_CACHE_MISSES.sum()))));
+        source.sendSystemMessage(Component.literal(describeTimings(message(source, "stats_luckperms_checks"), StaffChatMetrics.LUCKPERMS_CHECKS)));
+        source.sendSystemMessage(Component.literal(describeTimings(message(source, "stats_op_checks"), StaffChatMetrics.OP_CHECKS)));
+        source.sendSystemMessage(Component.literal(describeTimings(message(source, "stats_fan_out_latency"), StaffChatMetrics.FAN_OUT_LATENCY)));
+        return 1;
+    }
+
+    // Timings are recorded in nanoseconds and shown in microseconds
+    private static String describeTimings(String format, Log2Histogram histogram) {
+        return format
+                .replace("%count%", String.valueOf(histogram.count()))
+                .replace("%avg%", decimal(average(histogram) / 1000.0))
+                .replace("%p50%", decimal(histogram.quantile(0.5) / 1000.0))
+                .replace("%p99%", decimal(histogram.quantile(0.99) / 1000.0));
+    }
+
+    private static String decimal(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static double average(Log2Histogram histogram) {
+        long count = histogram.count();
+        return count == 0 ? 0 : (double) histogram.sum() / count;
+    }
+
+    // A lang.json message in the player's locale; the component is built once per locale and reused
+    public static void sendMessage(ServerPlayer player, String key) {
+        LocaleTable locales = ModConfig.current().locales;
+        sendMessage(player, locales.component(locales.localeOf(player), key));
+    }
+
+    public static void sendMessage(ServerPlayer player, Component component) {
+        if (ModConfig.current().useActionBar) {
             player.displayClientMessage(component, true);
         } else {
             player.sendSystemMessage(component);
         }
     }
 
+    private static void sendToSource(CommandSourceStack source, String key, boolean error) {
+        LocaleTable locales = ModConfig.current().locales;
+        sendToSource(source, locales.component(localeOf(source, locales), key), error);
+    }
+
     private static void sendToSource(CommandSourceStack source, Component component, boolean error) {
         if (source.getEntity() instanceof ServerPlayer player) {
             sendMessage(player, component);
@@ -123,14 +273,36 @@ public class StaffChatCommand {
         }
     }
 
+    // Raw text of a message in the source's locale, for messages with placeholders
+    private static String message(CommandSourceStack source, String key) {
+        LocaleTable locales = ModConfig.current().locales;
+        return locales.get(localeOf(source, locales), key);
+    }
+
+    // The console always gets lang.json
+    private static String localeOf(CommandSourceStack source, LocaleTable locales) {
+        return source.getEntity() instanceof ServerPlayer player ? locales.localeOf(player) : LocaleTable.DEFAULT;
+    }
+
     // Check if player can toggle staff chat
-    private static boolean canUseToggle(ServerPlayer player) {
-        return StaffChatManager.hasPermission(player, ModConfig.PERM_TOGGLE);
+    private static boolean canUseToggle(ServerPlayer player, ChannelConfig channel) {
+        return StaffChatManager.hasPermission(player, channel.togglePermission());
     }
 
-    // Check if player can send one-off staff messages
-    private static boolean canUseSend(ServerPlayer player) {
-        return StaffChatManager.hasPermission(player, ModConfig.PERM_SEND);
+    // History of a channel is only shown to players who could have read it live
+    private static boolean canUseHistory(CommandSourceStack source, ChannelConfig channel) {
+        if (source.getEntity() instanceof ServerPlayer player) {
+            return StaffChatManager.hasPermission(player, ModConfig.PERM_HISTORY)
+                    && StaffChatManager.canReceive(player, channel);
+        }
+        return true;
+    }
+
+    private static boolean canUseStats(CommandSourceStack source) {
+        if (source.getEntity() instanceof ServerPlayer player) {
+            return StaffChatManager.hasPermission(player, ModConfig.PERM_STATS);
+        }
+        return true;
     }
 
     private static boolean canUseReload(CommandSourceStack source) {
@@ -0,0 +1,13 @@
+package io.github.evelynnlovesyou.evesstaffchat.config;
+
+// A staff chat channel from the "channels" list in config.json. toggleCommand may be empty.
+public record ChannelConfig(
+        String id,
+        String command,
+        String toggleCommand,
+        String sendPermission,
+        String receivePermission,
+        String togglePermission,
+        String format
+) {
+}
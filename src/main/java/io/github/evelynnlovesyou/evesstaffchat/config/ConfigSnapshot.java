@@ -0,0 +1,315 @@
+package io.github.evelynnlovesyou.evesstaffchat.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import io.github.evelynnlovesyou.evesstaffchat.format.MessageTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// One fully parsed copy of config.json, lang.json and the locale files. Every key is checked and
+// converted once, here; values that don't pass are listed in problems() by file and key and
+// replaced with their default. Never modified after construction; ModConfig swaps the whole
+// snapshot on reload, so a reader that holds one sees consistent values.
+public final class ConfigSnapshot {
+
+    // The parsed files, kept so a reload of one file can reuse the others
+    private final JsonObject settingsJson;
+    private final JsonObject messagesJson;
+    private final Map<String, JsonObject> localesJson;
+    private final Map<String, String> messages;
+    private final List<String> problems;
+
+    // Default format of channels that don't set their own
+    private final String staffMessageFormat;
+
+    // lang.json layered with lang/<locale>.json
+    public final LocaleTable locales;
+
+    // Formats compiled once per snapshot, including every locale override
+    public final MessageTemplate bridgeTemplate;
+    private final Map<String, MessageTemplate> channelTemplates;
+    // Locale -> channel id -> template, and locale -> bridge template, only for locales that override them
+    private final Map<String, Map<String, MessageTemplate>> localeChannelTemplates;
+    private final Map<String, MessageTemplate> localeBridgeTemplates;
+
+    // Settings
+    public final List<ChannelConfig> channels;
+    public final boolean useActionBar;
+    public final boolean configAutoReload;
+    public final int configReloadDebounceMillis;
+    public final List<String> permissionProviders;
+    public final int permissionCacheMillis;
+    public final int rateLimitBurst;
+    public final double rateLimitPerSecond;
+    public final int dispatchThreads;
+    public final int dispatchQueueCapacity;
+    public final String dispatchBackpressure;
+    public final boolean earlyChatRouting;
+    public final boolean bridgeEnabled;
+    public final String bridgeServerId;
+    public final String bridgeTransport;
+    public final String bridgeListen;
+    public final List<String> bridgePeers;
+    public final boolean bridgeRelay;
+    public final int bridgeBatchSize;
+    public final int bridgeFlushMillis;
+    public final boolean historyEnabled;
+    public final int historySegmentBytes;
+    public final int historyMaxSegments;
+    public final int historyFlushMillis;
+    public final boolean mailboxEnabled;
+    public final int mailboxFileBytes;
+    public final int mailboxMaxRecipients;
+    public final int mailboxMaxMessages;
+    public final boolean webhookEnabled;
+    public final String webhookUrl;
+    public final String webhookContentField;
+    public final int webhookQueueCapacity;
+    public final int webhookBatchSize;
+    public final int webhookMaxContentChars;
+    public final int webhookFlushMillis;
+    public final int webhookTimeoutMillis;
+    public final int webhookMaxAttempts;
+    public final int webhookRetryBaseMillis;
+    public final int webhookRetryMaxMillis;
+    public final boolean companionEnabled;
+    public final int metricsExportSeconds;
+
+    // Settings and messages must already be merged with the defaults; locale files are partial
+    ConfigSnapshot(JsonObject settingsJson, JsonObject messagesJson, Map<String, JsonObject> localesJson) {
+        this.settingsJson = settingsJson.deepCopy();
+        this.messagesJson = messagesJson.deepCopy();
+        Map<String, JsonObject> localeCopies = new HashMap<>();
+        localesJson.forEach((locale, json) -> localeCopies.put(locale, json.deepCopy()));
+        this.localesJson = Map.copyOf(localeCopies);
+
+        this.problems = new ArrayList<>();
+        this.messages = Map.copyOf(readMessages(this.messagesJson, "lang.json", ModConfig.DEFAULT_MESSAGES));
+        Map<String, Map<String, String>> localeMessages = new HashMap<>();
+        this.localesJson.forEach((locale, json) ->
+                localeMessages.put(locale, readMessages(json, "lang/" + locale + ".json", Map.of())));
+        this.locales = new LocaleTable(this.messages, localeMessages);
+
+        staffMessageFormat = messages.get("staff_message_format");
+
+        useActionBar = read(Settings.USE_ACTION_BAR);
+        configAutoReload = read(Settings.CONFIG_AUTO_RELOAD);
+        configReloadDebounceMillis = read(Settings.CONFIG_RELOAD_DEBOUNCE_MILLIS);
+        permissionProviders = read(Settings.PERMISSION_PROVIDERS);
+        permissionCacheMillis = read(Settings.PERMISSION_CACHE_MILLIS);
+        rateLimitBurst = read(Settings.RATE_LIMIT_BURST);
+        rateLimitPerSecond = read(Settings.RATE_LIMIT_PER_SECOND);
+        dispatchThreads = read(Settings.DISPATCH_THREADS);
+        dispatchQueueCapacity = read(Settings.DISPATCH_QUEUE_CAPACITY);
+        dispatchBackpressure = read(Settings.DISPATCH_BACKPRESSURE);
+        earlyChatRouting = read(Settings.EARLY_CHAT_ROUTING);
+        bridgeEnabled = read(Settings.BRIDGE_ENABLED);
+        bridgeServerId = read(Settings.BRIDGE_SERVER_ID);
+        bridgeTransport = read(Settings.BRIDGE_TRANSPORT);
+        bridgeListen = read(Settings.BRIDGE_LISTEN);
+        bridgePeers = read(Settings.BRIDGE_PEERS);
+        bridgeRelay = read(Settings.BRIDGE_RELAY);
+        bridgeBatchSize = read(Settings.BRIDGE_BATCH_SIZE);
+        bridgeFlushMillis = read(Settings.BRIDGE_FLUSH_MILLIS);
+        historyEnabled = read(Settings.HISTORY_ENABLED);
+        historySegmentBytes = read(Settings.HISTORY_SEGMENT_BYTES);
+        historyMaxSegments = read(Settings.HISTORY_MAX_SEGMENTS);
+        historyFlushMillis = read(Settings.HISTORY_FLUSH_MILLIS);
+        mailboxEnabled = read(Settings.MAILBOX_ENABLED);
+        mailboxFileBytes = read(Settings.MAILBOX_FILE_BYTES);
+        mailboxMaxRecipients = read(Settings.MAILBOX_MAX_RECIPIENTS);
+        mailboxMaxMessages = read(Settings.MAILBOX_MAX_MESSAGES);
+        webhookEnabled = read(Settings.WEBHOOK_ENABLED);
+        webhookUrl = read(Settings.WEBHOOK_URL);
+        webhookContentField = read(Settings.WEBHOOK_CONTENT_FIELD);
+        webhookQueueCapacity = read(Settings.WEBHOOK_QUEUE_CAPACITY);
+        webhookBatchSize = read(Settings.WEBHOOK_BATCH_SIZE);
+        webhookMaxContentChars = read(Settings.WEBHOOK_MAX_CONTENT_CHARS);
+        webhookFlushMillis = read(Settings.WEBHOOK_FLUSH_MILLIS);
+        webhookTimeoutMillis = read(Settings.WEBHOOK_TIMEOUT_MILLIS);
+        webhookMaxAttempts = read(Settings.WEBHOOK_MAX_ATTEMPTS);
+        webhookRetryBaseMillis = read(Settings.WEBHOOK_RETRY_BASE_MILLIS);
+        webhookRetryMaxMillis = read(Settings.WEBHOOK_RETRY_MAX_MILLIS);
+        companionEnabled = read(Settings.COMPANION_ENABLED);
+        metricsExportSeconds = read(Settings.METRICS_EXPORT_SECONDS);
+
+        // Channels fall back to staff_message_format, so they are read after the messages
+        channels = parseChannels();
+
+        // A format used more than once is compiled once, so a locale repeating the lang.json format
+        // gets the same template and shares its packet
+        Map<String, MessageTemplate> compiled = new HashMap<>();
+        bridgeTemplate = compiled.computeIfAbsent(messages.get("bridge_message_format"), MessageTemplate::compile);
+        Map<String, MessageTemplate> templates = new HashMap<>();
+        for (ChannelConfig channel : channels) {
+            templates.put(channel.id(), compiled.computeIfAbsent(channel.format(), MessageTemplate::compile));
+        }
+        channelTemplates = Map.copyOf(templates);
+
+        Map<String, Map<String, MessageTemplate>> localeChannels = new HashMap<>();
+        Map<String, MessageTemplate> localeBridge = new HashMap<>();
+        for (String locale : locales.overrides().keySet()) {
+            Map<String, MessageTemplate> localized = new HashMap<>();
+            for (ChannelConfig channel : channels) {
+                String format = localeFormat(channel, locale);
+                if (format != null) {
+                    localized.put(channel.id(), compiled.computeIfAbsent(format, MessageTemplate::compile));
+                }
+            }
+            if (!localized.isEmpty()) {
+                localeChannels.put(locale, Map.copyOf(localized));
+            }
+            String bridgeFormat = locales.override(locale, "bridge_message_format");
+            if (bridgeFormat != null) {
+                localeBridge.put(locale, compiled.computeIfAbsent(bridgeFormat, MessageTemplate::compile));
+            }
+        }
+        localeChannelTemplates = Map.copyOf(localeChannels);
+        localeBridgeTemplates = Map.copyOf(localeBridge);
+    }
+
+    private <T> T read(Setting<T> setting) {
+        return setting.read(settingsJson, problems);
+    }
+
+    // Non-text values are reported and fall back to the default (lang.json) or are left out (locale files)
+    private Map<String, String> readMessages(JsonObject json, String file, Map<String, String> defaults) {
+        Map<String, String> read = new HashMap<>();
+        for (Map.Entry<String, JsonElement> entry : json.entrySet()) {
+            if (entry.getValue() instanceof JsonPrimitive primitive && primitive.isString()) {
+                read.put(entry.getKey(), primitive.getAsString());
+            } else {
+                problems.add(file + ": " + entry.getKey() + " expected text");
+                String fallback = defaults.get(entry.getKey());
+                if (fallback != null) {
+                    read.put(entry.getKey(), fallback);
+                }
+            }
+        }
+        return read;
+    }
+
+    // The files as parsed, for reloads that only replace some of them. Callers must not modify them.
+    JsonObject settingsJson() {
+        return settingsJson;
+    }
+
+    JsonObject messagesJson() {
+        return messagesJson;
+    }
+
+    Map<String, JsonObject> localesJson() {
+        return localesJson;
+    }
+
+    public Map<String, String> messages() {
+        return messages;
+    }
+
+    // "file: key problem" for every value that was replaced by its default
+    public List<String> problems() {
+        return Collections.unmodifiableList(problems);
+    }
+
+    // The first configured channel is the one used when nothing else is specified
+    public ChannelConfig getDefaultChannel() {
+        return channels.get(0);
+    }
+
+    // Compiled channel format; a channel object from an older snapshot gets its own format compiled
+    public MessageTemplate template(ChannelConfig channel) {
+        MessageTemplate template = channelTemplates.get(channel.id());
+        return template != null && template.source().equals(channel.format()) ? template : MessageTemplate.compile(channel.format());
+    }
+
+    // A locale's channel_format.<id>, or its staff_message_format for channels using the default format
+    public MessageTemplate template(ChannelConfig channel, String locale) {
+        Map<String, MessageTemplate> localized = localeChannelTemplates.get(locale);
+        MessageTemplate template = localized == null ? null : localized.get(channel.id());
+        return template == null ? template(channel) : template;
+    }
+
+    public MessageTemplate bridgeTemplate(String locale) {
+        return localeBridgeTemplates.getOrDefault(locale, bridgeTemplate);
+    }
+
+    private String localeFormat(ChannelConfig channel, String locale) {
+        String format = locales.override(locale, "channel_format." + channel.id());
+        if (format == null && channel.format().equals(staffMessageFormat)) {
+            format = locales.override(locale, "staff_message_format");
+        }
+        return format;
+    }
+
+    public ChannelConfig getChannel(String id) {
+        for (ChannelConfig channel : channels) {
+            if (channel.id().equals(id)) {
+                return channel;
+            }
+        }
+        return null;
+    }
+
+    private List<ChannelConfig> parseChannels() {
+        List<ChannelConfig> parsed = new ArrayList<>();
+        Set<String> ids = new HashSet<>();
+
+        JsonElement list = settingsJson.get("channels");
+        if (list instanceof JsonArray array) {
+            for (int i = 0; i < array.size(); i++) {
+                String key = "channels[" + i + "]";
+                if (!(array.get(i) instanceof JsonObject channel)) {
+                    problems.add("config.json: " + key + " expected an object, ignoring it");
+                    continue;
+                }
+
+                String id = channelValue(channel, key, "id", "");
+                if (id.isBlank() || !ids.add(id)) {
+                    problems.add("config.json: " + key + " has a missing or duplicate id, ignoring it");
+                    continue;
+                }
+
+                // Channels without explicit nodes get evesstaffchat.<id>.send etc.
+                String nodeBase = "evesstaffchat." + id;
+                parsed.add(new ChannelConfig(
+                        id,
+                        channelValue(channel, key, "command", id + "chat"),
+                        channelValue(channel, key, "toggle_command", ""),
+                        channelValue(channel, key, "send_permission", nodeBase + ".send"),
+                        channelValue(channel, key, "receive_permission", nodeBase + ".receive"),
+                        channelValue(channel, key, "toggle_permission", nodeBase + ".toggle"),
+                        channelValue(channel, key, "format", staffMessageFormat)
+                ));
+            }
+        } else {
+            problems.add("config.json: channels expected a list");
+        }
+
+        if (parsed.isEmpty()) {
+            problems.add("config.json: channels has no valid channel, using the default staff channel");
+            parsed.add(ModConfig.defaultChannel(staffMessageFormat));
+        }
+        return List.copyOf(parsed);
+    }
+
+    private String channelValue(JsonObject channel, String channelKey, String key, String fallback) {
+        JsonElement value = channel.get(key);
+        if (value == null || value.isJsonNull()) {
+            return fallback;
+        }
+        if (value instanceof JsonPrimitive primitive && primitive.isString()) {
+            return primitive.getAsString();
+        }
+        problems.add("config.json: " + channelKey + "." + key + " expected text, using \"" + fallback + "\"");
+        return fallback;
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.evelynnlovesyou.evesstaffchat.config;
+
+import io.github.evelynnlovesyou.evesstaffchat.exceptions.ConfigLoadException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Reloads config.json / lang.json / lang/*.json when they change on disk (config_auto_reload). Editors often
+// write a file several times in a row, so changes are collected until the folder has been quiet
+// for config_reload_debounce_millis and then only the files that changed are parsed again.
+// watchlist.json is not parsed here; a change to it just runs the callback, which reloads it.
+public class ConfigWatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final String WATCHLIST_FILE = "watchlist.json";
+
+    private static WatchService watchService;
+    private static Thread thread;
+
+    // Utility class - prevent instantiation
+    private ConfigWatcher() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // onReload runs on the watcher thread with the new snapshot, or the current one if only watchlist.json changed
+    public static synchronized void start(Consumer<ConfigSnapshot> onReload) {
+        ConfigSnapshot config = ModConfig.current();
+        if (!config.configAutoReload || thread != null) {
+            return;
+        }
+
+        try {
+            Path folder = ModConfig.getConfigFolder();
+            WatchService created = FileSystems.getDefault().newWatchService();
+            folder.register(created, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            Path locales = folder.resolve(ModConfig.LOCALE_FOLDER);
+            if (Files.isDirectory(locales)) {
+                locales.register(created, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+            }
+            watchService = created;
+
+            long debounceMillis = Math.max(0, config.configReloadDebounceMillis);
+            thread = new Thread(() -> watch(created, debounceMillis, onReload), "eves-staff-chat-config-watcher");
+            thread.setDaemon(true);
+            thread.start();
+            LOGGER.info("Watching {} for config changes", folder);
+        } catch (IOException e) {
+            LOGGER.error("Failed to watch the config folder, auto reload is off", e);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (watchService == null) {
+            return;
+        }
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to close config watcher: {}", e.getMessage());
+        }
+        watchService = null;
+        thread = null;
+    }
+
+    public static synchronized void restart(Consumer<ConfigSnapshot> onReload) {
+        stop();
+        start(onReload);
+    }
+
+    private static void watch(WatchService service, long debounceMillis, Consumer<ConfigSnapshot> onReload) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean settingsChanged = false;
+                boolean messagesChanged = false;
+                boolean watchlistChanged = false;
+
+                // Keep collecting until nothing has changed for the debounce period
+                while (key != null) {
+                    // Events from the lang folder are locale files, which reload with the messages
+                    boolean localeFolder = key.watchable() instanceof Path watched
+                            && watched.getFileName().toString().equals(ModConfig.LOCALE_FOLDER);
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.context() instanceof Path changed) {
+                            String name = changed.getFileName().toString();
+                            settingsChanged |= !localeFolder && name.equals("config.json");
+                            messagesChanged |= localeFolder ? name.endsWith(".json") : name.equals("lang.json");
+                            watchlistChanged |= !localeFolder && name.equals(WATCHLIST_FILE);
+                        }
+                    }
+                    key.reset();
+                    key = service.poll(debounceMillis, TimeUnit.MILLISECONDS);
+                }
+
+                if (settingsChanged || messagesChanged || watchlistChanged) {
+                    reload(settingsChanged, messagesChanged, watchlistChanged, onReload);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Stopped
+        }
+    }
+
+    private static void reload(boolean settingsChanged, boolean messagesChanged, boolean watchlistChanged, Consumer<ConfigSnapshot> onReload) {
+        ConfigSnapshot config = ModConfig.current();
+        if (settingsChanged || messagesChanged) {
+            try {
+                config = ModConfig.reloadFiles(settingsChanged, messagesChanged);
+                LOGGER.info("Reloaded {} after it changed on disk",
+                        settingsChanged && messagesChanged ? "config.json and lang.json" : settingsChanged ? "config.json" : "lang.json");
+            } catch (ConfigLoadException e) {
+                // Usually a half-saved file; the next save triggers another attempt
+                LOGGER.warn("Keeping the previous configuration: {}", e.getMessage());
+                if (!watchlistChanged) {
+                    return;
+                }
+            }
+        } else {
+            LOGGER.info("Reloading {} after it changed on disk", WATCHLIST_FILE);
+        }
+        onReload.accept(config);
+    }
+}
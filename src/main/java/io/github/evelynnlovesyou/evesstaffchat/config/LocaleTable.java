@@ -0,0 +1,121 @@
+package io.github.evelynnlovesyou.evesstaffchat.config;
+
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ClientInformation;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Messages from lang/<locale>.json layered over lang.json. A locale file only needs the keys it
+// translates; a file named after just the language (de.json) also covers its regions (de_de, de_at).
+// Players are matched by the language their client reports. Built once per config snapshot, so
+// everything cached here is dropped on reload together with the snapshot.
+public final class LocaleTable {
+
+    // Locale of lang.json, used for the console and for players without a matching file
+    public static final String DEFAULT = "";
+
+    private static final int MAX_CACHED = 256;
+
+    private final Map<String, String> base;
+    private final Map<String, Map<String, String>> overrides;
+    // Client language -> locale; clients can report anything, so this is cleared when it grows too big
+    private final Map<String, String> resolved = new ConcurrentHashMap<>();
+    // (template, channel, locale) -> component, least recently used dropped first
+    private final Map<CacheKey, Component> components = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<CacheKey, Component> eldest) {
+            return size() > MAX_CACHED;
+        }
+    });
+
+    private record CacheKey(String template, String channel, String locale) {
+    }
+
+    // Locale names must already be lower case
+    LocaleTable(Map<String, String> base, Map<String, Map<String, String>> overrides) {
+        this.base = base;
+        Map<String, Map<String, String>> copy = new HashMap<>();
+        overrides.forEach((locale, messages) -> copy.put(locale, Map.copyOf(messages)));
+        this.overrides = Map.copyOf(copy);
+    }
+
+    Map<String, Map<String, String>> overrides() {
+        return overrides;
+    }
+
+    public boolean isEmpty() {
+        return overrides.isEmpty();
+    }
+
+    public int size() {
+        return overrides.size();
+    }
+
+    public String localeOf(ServerPlayer player) {
+        if (overrides.isEmpty()) {
+            return DEFAULT;
+        }
+        ClientInformation information = player.clientInformation();
+        return information == null ? DEFAULT : resolve(information.language());
+    }
+
+    // de_de -> de_de.json if present, else de.json, else lang.json
+    public String resolve(String language) {
+        if (overrides.isEmpty() || language == null || language.isEmpty()) {
+            return DEFAULT;
+        }
+        String locale = resolved.get(language);
+        if (locale == null) {
+            String lower = language.toLowerCase(Locale.ROOT);
+            int split = lower.indexOf('_');
+            if (overrides.containsKey(lower)) {
+                locale = lower;
+            } else if (split > 0 && overrides.containsKey(lower.substring(0, split))) {
+                locale = lower.substring(0, split);
+            } else {
+                locale = DEFAULT;
+            }
+            if (resolved.size() >= MAX_CACHED) {
+                resolved.clear();
+            }
+            resolved.put(language, locale);
+        }
+        return locale;
+    }
+
+    public String get(String locale, String key) {
+        String text = override(locale, key);
+        return text != null ? text : base.get(key);
+    }
+
+    // Only what the locale file itself sets, null otherwise
+    public String override(String locale, String key) {
+        Map<String, String> messages = overrides.get(locale);
+        return messages == null ? null : messages.get(key);
+    }
+
+    public Component component(String locale, String key) {
+        return component(locale, key, null);
+    }
+
+    // The message as a literal component with %channel% filled in, built once per (key, channel, locale)
+    public Component component(String locale, String key, String channelId) {
+        CacheKey cacheKey = new CacheKey(key, channelId, locale);
+        Component component = components.get(cacheKey);
+        if (component == null) {
+            String text = get(locale, key);
+            if (channelId != null) {
+                text = text.replace("%channel%", channelId);
+            }
+            component = Component.literal(text);
+            components.put(cacheKey, component);
+        }
+        return component;
+    }
+}
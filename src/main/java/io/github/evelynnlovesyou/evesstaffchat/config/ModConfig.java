@@ -2,20 +2,29 @@ package io.github.evelynnlovesyou.evesstaffchat.config;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import io.github.evelynnlovesyou.evesstaffchat.exceptions.ConfigLoadException;
+import io.github.evelynnlovesyou.evesstaffchat.jfr.ConfigReloadEvent;
 import net.fabricmc.loader.api.FabricLoader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.io.IOException;
-import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class ModConfig {
 
@@ -24,27 +33,26 @@ public class ModConfig {
 
     private static final String DEFAULT_LANG_PATH = "/config/lang.json";
     private static final String DEFAULT_CONFIG_PATH = "/config/config.json";
+    static final String LOCALE_FOLDER = "lang";
 
-    private static final Map<String, String> MESSAGES = new HashMap<>();
-    private static final Map<String, Object> SETTINGS = new HashMap<>();
-
-    // Permission nodes (hardcoded)
+    // Permission nodes (hardcoded, the toggle/send/receive nodes are the defaults for the built-in staff channel)
     private static final String PERM_NODE_TOGGLE = "evesstaffchat.staffchat.toggle";
     private static final String PERM_NODE_SEND = "evesstaffchat.staffchat.send";
     private static final String PERM_NODE_RECEIVE = "evesstaffchat.staffchat.receive";
     private static final String PERM_NODE_RELOAD = "evesstaffchat.staffchat.reload";
+    private static final String PERM_NODE_HISTORY = "evesstaffchat.staffchat.history";
+    private static final String PERM_NODE_STATS = "evesstaffchat.staffchat.stats";
 
-    // Commands and arguments (hardcoded)
+    // Commands and arguments (hardcoded, the commands are the defaults for the built-in staff channel)
     private static final String CMD_STAFFCHAT = "staffchat";
     private static final String CMD_STAFFCHAT_TOGGLE = "staffchattoggle";
     private static final String ARG_MSG = "message";
+    private static final String DEFAULT_CHANNEL_ID = "staff";
 
-    // Default values
-    private static final Map<String, Object> DEFAULT_SETTINGS = Map.ofEntries(
-        Map.entry("use_action_bar", true)
-    );
+    // Default values; the settings and their checks are listed in Settings
+    private static final JsonObject DEFAULT_SETTINGS = Settings.defaults(defaultChannelJson());
 
-    private static final Map<String, String> DEFAULT_MESSAGES = Map.ofEntries(
+    static final Map<String, String> DEFAULT_MESSAGES = Map.ofEntries(
         Map.entry("no_permission_toggle", "no perms to toggle staff chat"),
         Map.entry("no_permission_send", "no perms to send to staff chat"),
         Map.entry("no_permission_reload", "no perms to reload config"),
@@ -52,38 +60,58 @@ public class ModConfig {
         Map.entry("staffchat_disabled", "disabled staff chat"),
         Map.entry("staff_message_format", "[Staff] %player%: %message%"),
         Map.entry("reload_success", "config reloaded"),
-        Map.entry("reload_failed", "failed to reload config")
+        Map.entry("reload_failed", "failed to reload config"),
+        Map.entry("bridge_message_format", "[Staff] [%server%] %player%: %message%"),
+        Map.entry("no_permission_history", "no perms to view staff chat history"),
+        Map.entry("history_header", "staff chat history page %page%/%pages%"),
+        Map.entry("search_header", "staff chat results for %query%"),
+        Map.entry("history_entry", "[%time%] %player%: %message%"),
+        Map.entry("history_empty", "no staff chat messages found"),
+        Map.entry("no_permission_stats", "no perms to view staff chat stats"),
+        Map.entry("stats_header", "staff chat stats"),
+        Map.entry("stats_messages", "messages: %command% command, %toggled% toggled, %rate_limited% rate limited, %dropped% dropped"),
+        Map.entry("stats_watchlist", "watchlist hits: %hits%"),
+        Map.entry("stats_webhook", "webhook: %sent% sent, %dropped% dropped"),
+        Map.entry("stats_recipients", "recipients per message: avg %avg%, p99 <= %p99%"),
+        Map.entry("stats_permission_cache", "permission cache: %hits% hits, %misses% misses"),
+        Map.entry("stats_luckperms_checks", "luckperms checks: %count%, avg %avg%us, p50 <= %p50%us, p99 <= %p99%us"),
+        Map.entry("stats_op_checks", "op checks: %count%, avg %avg%us, p50 <= %p50%us, p99 <= %p99%us"),
+        Map.entry("stats_fan_out_latency", "fan-out latency: %count%, avg %avg%us, p50 <= %p50%us, p99 <= %p99%us"),
+        Map.entry("rate_limited", "slow down, you are sending staff messages too fast"),
+        Map.entry("watchlist_alert", "[Watchlist] %player%: %message%"),
+        Map.entry("mailbox_header", "you missed %count% staff messages while offline"),
+        Map.entry("mailbox_entry", "[%time%] [%channel%] %player%: %message%"),
+        Map.entry("mailbox_more", "...and %count% more"),
+        Map.entry("webhook_entry", "[%channel%] %player%: %message%")
     );
 
-    // Messages
-    public static String NO_PERMISSION_TOGGLE;
-    public static String NO_PERMISSION_SEND;
-    public static String NO_PERMISSION_RELOAD;
-    public static String STAFFCHAT_ENABLED;
-    public static String STAFFCHAT_DISABLED;
-    public static String STAFF_MESSAGE_FORMAT;
-    public static String RELOAD_SUCCESS;
-    public static String RELOAD_FAILED;
-
-    // Settings
-    public static String COMMAND;
-    public static String COMMAND_TOGGLE;
-    public static String ARG_MESSAGE;
-    public static String PERM_TOGGLE;
-    public static String PERM_SEND;
-    public static String PERM_RECEIVE;
-    public static String PERM_RELOAD;
-    public static boolean USE_ACTION_BAR;
-
-    static {
+    // Hardcoded values, these never change on reload
+    public static final String ARG_MESSAGE = ARG_MSG;
+    public static final String PERM_RELOAD = PERM_NODE_RELOAD;
+    public static final String PERM_HISTORY = PERM_NODE_HISTORY;
+    public static final String PERM_STATS = PERM_NODE_STATS;
+
+    // Everything read from the files. Replaced as a whole, never modified in place,
+    // so reads need no locking and never see a half-loaded config.
+    private static volatile ConfigSnapshot current;
+    private static ExecutorService loader;
+
+    // Called once from EvesStaffChat#onInitialize, before anything reads the config
+    public static synchronized void init() {
         try {
             load();
         } catch (ConfigLoadException e) {
             LOGGER.error("Failed to load mod configuration: {}", e.getMessage());
+            useDefaults();
         }
     }
 
-    private static Path getConfigFolder() throws IOException {
+    // Hold on to the returned snapshot for the duration of one operation instead of calling this repeatedly
+    public static ConfigSnapshot current() {
+        return current;
+    }
+
+    public static Path getConfigFolder() throws IOException {
         Path folder = FabricLoader.getInstance().getConfigDir().resolve("evesstaffchat");
         if (!Files.exists(folder)) {
             Files.createDirectories(folder);
@@ -107,84 +135,161 @@ public class ModConfig {
         return file;
     }
 
-    private static void load() throws ConfigLoadException {
+    private static synchronized void load() throws ConfigLoadException {
+        ConfigReloadEvent event = new ConfigReloadEvent();
+        event.begin();
         try {
-            MESSAGES.clear();
-            SETTINGS.clear();
-
-            // Load config files
-            Path langFile = getConfigFile("lang.json", DEFAULT_LANG_PATH);
-            Type langType = new TypeToken<Map<String, String>>() {}.getType();
-            try (var reader = Files.newBufferedReader(langFile, StandardCharsets.UTF_8)) {
-                Map<String, String> langMap = GSON.fromJson(reader, langType);
-                if (langMap != null) {
-                    MESSAGES.putAll(langMap);
-                }
-            }
+            current = new ConfigSnapshot(readSettings(), readMessages(), readLocales());
+            event.success = true;
+            logProblems(current, null);
+            LOGGER.info("Mod configuration fully initialized");
+        } catch (IOException e) {
+            throw new ConfigLoadException("Failed to load configuration files: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ConfigLoadException("Failed to parse configuration: " + e.getMessage(), e);
+        } finally {
+            commit(event, "config.json, lang.json, lang/");
+        }
+    }
 
-            Path configFile = getConfigFile("config.json", DEFAULT_CONFIG_PATH);
-            Type configType = new TypeToken<Map<String, Object>>() {}.getType();
-            try (var reader = Files.newBufferedReader(configFile, StandardCharsets.UTF_8)) {
-                Map<String, Object> configMap = GSON.fromJson(reader, configType);
-                if (configMap != null) {
-                    SETTINGS.putAll(configMap);
-                }
+    // Re-reads only the given files and keeps the current values of the other one; locale files count as messages
+    static synchronized ConfigSnapshot reloadFiles(boolean settingsChanged, boolean messagesChanged) throws ConfigLoadException {
+        ConfigReloadEvent event = new ConfigReloadEvent();
+        event.begin();
+        ConfigSnapshot previous = current;
+        try {
+            current = new ConfigSnapshot(
+                    settingsChanged ? readSettings() : previous.settingsJson(),
+                    messagesChanged ? readMessages() : previous.messagesJson(),
+                    messagesChanged ? readLocales() : previous.localesJson());
+            event.success = true;
+            logProblems(current, previous);
+            return current;
+        } catch (IOException e) {
+            throw new ConfigLoadException("Failed to load configuration files: " + e.getMessage(), e);
+        } catch (Exception e) {
+            throw new ConfigLoadException("Failed to parse configuration: " + e.getMessage(), e);
+        } finally {
+            commit(event, settingsChanged && messagesChanged ? "config.json, lang.json, lang/"
+                    : settingsChanged ? "config.json" : "lang.json, lang/");
+        }
+    }
+
+    private static void commit(ConfigReloadEvent event, String files) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.files = files;
+            event.commit();
+        }
+    }
+
+    // Problems are logged once: on a full load all of them, on a partial reload only the ones the previous snapshot didn't have
+    private static void logProblems(ConfigSnapshot snapshot, ConfigSnapshot previous) {
+        for (String problem : snapshot.problems()) {
+            if (previous == null || !previous.problems().contains(problem)) {
+                LOGGER.warn("Invalid configuration value - {}", problem);
             }
+        }
+    }
+
+    private static JsonObject readSettings() throws IOException {
+        return readWithDefaults("config.json", DEFAULT_CONFIG_PATH, DEFAULT_SETTINGS);
+    }
 
-            // Merge with defaults and save if updated
-            boolean settingsUpdated = mergeWithDefaults(SETTINGS, DEFAULT_SETTINGS);
-            boolean messagesUpdated = mergeWithDefaults(MESSAGES, DEFAULT_MESSAGES);
+    private static JsonObject readMessages() throws IOException {
+        return readWithDefaults("lang.json", DEFAULT_LANG_PATH, toJson(DEFAULT_MESSAGES));
+    }
 
-            if (settingsUpdated) {
-                try {
-                    saveSettings();
-                    LOGGER.info("Updated config.json with missing keys");
-                } catch (IOException e) {
-                    LOGGER.warn("Failed to save updated config.json: {}", e.getMessage());
+    // Adds the keys the file is missing and saves it, but only if that actually changed something
+    private static JsonObject readWithDefaults(String fileName, String defaultResourcePath, JsonObject defaults) throws IOException {
+        JsonObject json = readObject(getConfigFile(fileName, defaultResourcePath));
+        if (mergeWithDefaults(json, defaults)) {
+            try {
+                if (write(fileName, json)) {
+                    LOGGER.info("Updated {} with missing keys", fileName);
                 }
+            } catch (IOException e) {
+                LOGGER.warn("Failed to save updated {}: {}", fileName, e.getMessage());
             }
-            if (messagesUpdated) {
-                try {
-                    saveMessages();
-                    LOGGER.info("Updated lang.json with missing messages");
-                } catch (IOException e) {
-                    LOGGER.warn("Failed to save updated lang.json: {}", e.getMessage());
+        }
+        return json;
+    }
+
+    // lang/<locale>.json, e.g. lang/de_de.json; each file only holds the keys it translates
+    private static Map<String, JsonObject> readLocales() throws IOException {
+        Path folder = getConfigFolder().resolve(LOCALE_FOLDER);
+        if (!Files.isDirectory(folder)) {
+            Files.createDirectories(folder);
+            return Map.of();
+        }
+
+        Map<String, JsonObject> locales = new HashMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder, "*.json")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String locale = name.substring(0, name.length() - ".json".length()).toLowerCase(Locale.ROOT);
+                JsonObject messages = readObject(file);
+                if (!locale.isEmpty() && !messages.isEmpty()) {
+                    locales.put(locale, messages);
                 }
             }
+        }
+        if (!locales.isEmpty()) {
+            LOGGER.info("Loaded {} locale file(s): {}", locales.size(), locales.keySet());
+        }
+        return locales;
+    }
 
-            // Populate public fields
-            COMMAND = CMD_STAFFCHAT;
-            COMMAND_TOGGLE = CMD_STAFFCHAT_TOGGLE;
-            ARG_MESSAGE = ARG_MSG;
-            PERM_TOGGLE = PERM_NODE_TOGGLE;
-            PERM_SEND = PERM_NODE_SEND;
-            PERM_RECEIVE = PERM_NODE_RECEIVE;
-            PERM_RELOAD = PERM_NODE_RELOAD;
-            USE_ACTION_BAR = Boolean.parseBoolean(String.valueOf(SETTINGS.get("use_action_bar")));
-
-            NO_PERMISSION_TOGGLE = MESSAGES.get("no_permission_toggle");
-            NO_PERMISSION_SEND = MESSAGES.get("no_permission_send");
-            NO_PERMISSION_RELOAD = MESSAGES.get("no_permission_reload");
-            STAFFCHAT_ENABLED = MESSAGES.get("staffchat_enabled");
-            STAFFCHAT_DISABLED = MESSAGES.get("staffchat_disabled");
-            STAFF_MESSAGE_FORMAT = MESSAGES.get("staff_message_format");
-            RELOAD_SUCCESS = MESSAGES.get("reload_success");
-            RELOAD_FAILED = MESSAGES.get("reload_failed");
+    // An empty file counts as an empty object
+    private static JsonObject readObject(Path file) throws IOException {
+        JsonElement json;
+        try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            json = JsonParser.parseReader(reader);
+        }
+        if (json.isJsonNull()) {
+            return new JsonObject();
+        }
+        if (!json.isJsonObject()) {
+            throw new JsonParseException(file.getFileName() + " must hold a JSON object");
+        }
+        return json.getAsJsonObject();
+    }
 
-            LOGGER.info("Mod configuration fully initialized");
+    static ChannelConfig defaultChannel(String format) {
+        return new ChannelConfig(DEFAULT_CHANNEL_ID, CMD_STAFFCHAT, CMD_STAFFCHAT_TOGGLE,
+                PERM_NODE_SEND, PERM_NODE_RECEIVE, PERM_NODE_TOGGLE, format);
+    }
 
-        } catch (IOException e) {
-            throw new ConfigLoadException("Failed to load configuration files: " + e.getMessage(), e);
-        } catch (Exception e) {
-            throw new ConfigLoadException("Failed to parse configuration: " + e.getMessage(), e);
-        }
+    private static JsonObject defaultChannelJson() {
+        JsonObject channel = new JsonObject();
+        channel.addProperty("id", DEFAULT_CHANNEL_ID);
+        channel.addProperty("command", CMD_STAFFCHAT);
+        channel.addProperty("toggle_command", CMD_STAFFCHAT_TOGGLE);
+        channel.addProperty("send_permission", PERM_NODE_SEND);
+        channel.addProperty("receive_permission", PERM_NODE_RECEIVE);
+        channel.addProperty("toggle_permission", PERM_NODE_TOGGLE);
+        return channel;
+    }
+
+    private static JsonObject toJson(Map<String, String> messages) {
+        JsonObject json = new JsonObject();
+        messages.forEach(json::addProperty);
+        return json;
+    }
+
+    public static ChannelConfig getDefaultChannel() {
+        return current.getDefaultChannel();
     }
 
-    private static <K, V> boolean mergeWithDefaults(Map<K, V> current, Map<K, V> defaults) {
+    public static ChannelConfig getChannel(String id) {
+        return current.getChannel(id);
+    }
+
+    private static boolean mergeWithDefaults(JsonObject current, JsonObject defaults) {
         boolean updated = false;
-        for (Map.Entry<K, V> entry : defaults.entrySet()) {
-            if (!current.containsKey(entry.getKey())) {
-                current.put(entry.getKey(), entry.getValue());
+        for (Map.Entry<String, JsonElement> entry : defaults.entrySet()) {
+            if (!current.has(entry.getKey())) {
+                current.add(entry.getKey(), entry.getValue().deepCopy());
                 updated = true;
             }
         }
@@ -192,30 +297,69 @@ public class ModConfig {
     }
 
     public static void saveSettings() throws IOException {
-        Path configFile = getConfigFolder().resolve("config.json");
-        Files.writeString(configFile, GSON.toJson(SETTINGS));
-        LOGGER.info("Saved config.json to {}", configFile);
+        write("config.json", current.settingsJson());
     }
 
     public static void saveMessages() throws IOException {
-        Path langFile = getConfigFolder().resolve("lang.json");
-        Files.writeString(langFile, GSON.toJson(MESSAGES));
-        LOGGER.info("Saved lang.json to {}", langFile);
+        write("lang.json", current.messagesJson());
+    }
+
+    // Leaves the file alone if it already holds exactly this, so the config watcher isn't triggered for nothing
+    private static boolean write(String fileName, JsonElement json) throws IOException {
+        Path file = getConfigFolder().resolve(fileName);
+        String text = GSON.toJson(json);
+        if (Files.exists(file) && Files.readString(file, StandardCharsets.UTF_8).equals(text)) {
+            return false;
+        }
+        Files.writeString(file, text);
+        LOGGER.info("Saved {} to {}", fileName, file);
+        return true;
     }
 
     public static void reload() throws ConfigLoadException {
         load();
     }
 
+    // Parses the files on the config loader thread; the future completes with the new snapshot
+    public static synchronized CompletableFuture<ConfigSnapshot> reloadAsync() {
+        if (loader == null) {
+            loader = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "eves-staff-chat-config");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                load();
+                return current;
+            } catch (ConfigLoadException e) {
+                throw new CompletionException(e);
+            }
+        }, loader);
+    }
+
+    // Uses the built-in defaults without touching the config folder
+    public static synchronized void useDefaults() {
+        current = new ConfigSnapshot(DEFAULT_SETTINGS, toJson(DEFAULT_MESSAGES), Map.of());
+    }
+
     public static String get(String key) {
-        return MESSAGES.get(key);
+        return current.messages().get(key);
     }
 
-    public static void setSetting(String key, Object value) {
-        SETTINGS.put(key, value);
+    // Copy-on-write, publishes a new snapshot with the changed value
+    public static synchronized void setSetting(String key, Object value) {
+        ConfigSnapshot previous = current;
+        JsonObject settings = previous.settingsJson().deepCopy();
+        settings.add(key, GSON.toJsonTree(value));
+        current = new ConfigSnapshot(settings, previous.messagesJson(), previous.localesJson());
+        logProblems(current, previous);
     }
 
-    public static Object getSetting(String key) {
-        return SETTINGS.get(key);
+    // The raw value as written in config.json, or null; the typed value is a field of current()
+    public static JsonElement getSetting(String key) {
+        JsonElement value = current.settingsJson().get(key);
+        return value == null ? null : value.deepCopy();
     }
 }
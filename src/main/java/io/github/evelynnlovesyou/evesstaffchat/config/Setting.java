@@ -0,0 +1,135 @@
+package io.github.evelynnlovesyou.evesstaffchat.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+// One key of config.json: its default and the check a value has to pass. Reading never fails,
+// a bad value is reported under its key and the default is used instead.
+final class Setting<T> {
+
+    private final String key;
+    private final T fallback;
+    private final JsonElement defaultJson;
+    // Throws IllegalArgumentException with what was expected
+    private final Function<JsonElement, T> parser;
+
+    private Setting(String key, T fallback, JsonElement defaultJson, Function<JsonElement, T> parser) {
+        this.key = key;
+        this.fallback = fallback;
+        this.defaultJson = defaultJson;
+        this.parser = parser;
+    }
+
+    static Setting<Boolean> bool(String key, boolean fallback) {
+        return new Setting<>(key, fallback, new JsonPrimitive(fallback), value -> {
+            if (value instanceof JsonPrimitive primitive && primitive.isBoolean()) {
+                return primitive.getAsBoolean();
+            }
+            throw new IllegalArgumentException("expected true or false");
+        });
+    }
+
+    static Setting<Integer> integer(String key, int fallback, int min) {
+        return integer(key, fallback, min, Integer.MAX_VALUE);
+    }
+
+    static Setting<Integer> integer(String key, int fallback, int min, int max) {
+        String expected = max == Integer.MAX_VALUE
+                ? "expected a whole number of at least " + min
+                : "expected a whole number from " + min + " to " + max;
+        return new Setting<>(key, fallback, new JsonPrimitive(fallback), value -> {
+            double number = number(value);
+            if (number != Math.rint(number) || number < min || number > max) {
+                throw new IllegalArgumentException(expected);
+            }
+            return (int) number;
+        });
+    }
+
+    static Setting<Double> decimal(String key, double fallback, double min) {
+        return new Setting<>(key, fallback, new JsonPrimitive(fallback), value -> {
+            double number = number(value);
+            if (Double.isNaN(number) || Double.isInfinite(number) || number < min) {
+                throw new IllegalArgumentException("expected a number of at least " + min);
+            }
+            return number;
+        });
+    }
+
+    static Setting<String> string(String key, String fallback) {
+        return new Setting<>(key, fallback, new JsonPrimitive(fallback), Setting::text);
+    }
+
+    // One of the allowed values, ignoring case; always returned in lower case
+    static Setting<String> choice(String key, String fallback, String... allowed) {
+        List<String> values = List.of(allowed);
+        return new Setting<>(key, fallback, new JsonPrimitive(fallback), value -> {
+            String choice = text(value).toLowerCase(Locale.ROOT);
+            if (!values.contains(choice)) {
+                throw new IllegalArgumentException("expected one of " + values);
+            }
+            return choice;
+        });
+    }
+
+    static Setting<List<String>> stringList(String key, String... fallback) {
+        JsonArray defaultJson = new JsonArray();
+        for (String value : fallback) {
+            defaultJson.add(value);
+        }
+        return new Setting<>(key, List.copyOf(Arrays.asList(fallback)), defaultJson, value -> {
+            if (!(value instanceof JsonArray array)) {
+                throw new IllegalArgumentException("expected a list");
+            }
+            List<String> values = new ArrayList<>(array.size());
+            for (JsonElement element : array) {
+                values.add(text(element));
+            }
+            return List.copyOf(values);
+        });
+    }
+
+    String key() {
+        return key;
+    }
+
+    JsonElement defaultJson() {
+        return defaultJson.deepCopy();
+    }
+
+    T read(JsonObject settings, List<String> problems) {
+        JsonElement value = settings.get(key);
+        if (value == null || value.isJsonNull()) {
+            problems.add("config.json: " + key + " has no value, using " + defaultJson);
+            return fallback;
+        }
+        try {
+            return parser.apply(value);
+        } catch (IllegalArgumentException e) {
+            problems.add("config.json: " + key + " " + e.getMessage() + ", using " + defaultJson);
+            return fallback;
+        }
+    }
+
+    private static double number(JsonElement value) {
+        if (value instanceof JsonPrimitive primitive && primitive.isNumber()) {
+            return primitive.getAsDouble();
+        }
+        throw new IllegalArgumentException("expected a number");
+    }
+
+    private static String text(JsonElement value) {
+        if (value instanceof JsonPrimitive primitive && !primitive.isBoolean() && !primitive.isNumber()) {
+            return primitive.getAsString();
+        }
+        throw new IllegalArgumentException("expected text");
+    }
+}
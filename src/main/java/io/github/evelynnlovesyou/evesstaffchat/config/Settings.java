@@ -0,0 +1,90 @@
+package io.github.evelynnlovesyou.evesstaffchat.config;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import java.util.List;
+
+// Every key of config.json except "channels", in the order a fresh file lists them
+final class Settings {
+
+    static final Setting<Boolean> USE_ACTION_BAR = Setting.bool("use_action_bar", true);
+    static final Setting<Boolean> CONFIG_AUTO_RELOAD = Setting.bool("config_auto_reload", false);
+    static final Setting<Integer> CONFIG_RELOAD_DEBOUNCE_MILLIS = Setting.integer("config_reload_debounce_millis", 500, 0);
+    static final Setting<List<String>> PERMISSION_PROVIDERS = Setting.stringList("permission_providers", "luckperms", "fabric", "file", "op");
+    static final Setting<Integer> PERMISSION_CACHE_MILLIS = Setting.integer("permission_cache_millis", 5000, 0);
+    static final Setting<Integer> RATE_LIMIT_BURST = Setting.integer("rate_limit_burst", 5, 1);
+    static final Setting<Double> RATE_LIMIT_PER_SECOND = Setting.decimal("rate_limit_per_second", 1.0, 0);
+    static final Setting<Integer> DISPATCH_THREADS = Setting.integer("dispatch_threads", 2, 0);
+    static final Setting<Integer> DISPATCH_QUEUE_CAPACITY = Setting.integer("dispatch_queue_capacity", 1024, 1);
+    static final Setting<String> DISPATCH_BACKPRESSURE = Setting.choice("dispatch_backpressure", "drop_newest",
+            "caller_runs", "drop_newest", "drop_oldest");
+    static final Setting<Boolean> EARLY_CHAT_ROUTING = Setting.bool("early_chat_routing", true);
+    static final Setting<Boolean> BRIDGE_ENABLED = Setting.bool("bridge_enabled", false);
+    static final Setting<String> BRIDGE_SERVER_ID = Setting.string("bridge_server_id", "");
+    static final Setting<String> BRIDGE_TRANSPORT = Setting.choice("bridge_transport", "tcp", "tcp", "unix");
+    static final Setting<String> BRIDGE_LISTEN = Setting.string("bridge_listen", "");
+    static final Setting<List<String>> BRIDGE_PEERS = Setting.stringList("bridge_peers");
+    static final Setting<Boolean> BRIDGE_RELAY = Setting.bool("bridge_relay", false);
+    // A bridge frame stores its message count as an unsigned short
+    static final Setting<Integer> BRIDGE_BATCH_SIZE = Setting.integer("bridge_batch_size", 32, 1, 65535);
+    static final Setting<Integer> BRIDGE_FLUSH_MILLIS = Setting.integer("bridge_flush_millis", 50, 0);
+    static final Setting<Boolean> HISTORY_ENABLED = Setting.bool("history_enabled", true);
+    static final Setting<Integer> HISTORY_SEGMENT_BYTES = Setting.integer("history_segment_bytes", 4194304, 4096);
+    static final Setting<Integer> HISTORY_MAX_SEGMENTS = Setting.integer("history_max_segments", 32, 1);
+    static final Setting<Integer> HISTORY_FLUSH_MILLIS = Setting.integer("history_flush_millis", 200, 0);
+    static final Setting<Boolean> MAILBOX_ENABLED = Setting.bool("mailbox_enabled", true);
+    static final Setting<Integer> MAILBOX_FILE_BYTES = Setting.integer("mailbox_file_bytes", 1048576, 4096);
+    static final Setting<Integer> MAILBOX_MAX_RECIPIENTS = Setting.integer("mailbox_max_recipients", 1000, 1);
+    static final Setting<Integer> MAILBOX_MAX_MESSAGES = Setting.integer("mailbox_max_messages", 50, 1);
+    static final Setting<Boolean> WEBHOOK_ENABLED = Setting.bool("webhook_enabled", false);
+    static final Setting<String> WEBHOOK_URL = Setting.string("webhook_url", "");
+    static final Setting<String> WEBHOOK_CONTENT_FIELD = Setting.string("webhook_content_field", "content");
+    static final Setting<Integer> WEBHOOK_QUEUE_CAPACITY = Setting.integer("webhook_queue_capacity", 1024, 1);
+    static final Setting<Integer> WEBHOOK_BATCH_SIZE = Setting.integer("webhook_batch_size", 10, 1);
+    static final Setting<Integer> WEBHOOK_MAX_CONTENT_CHARS = Setting.integer("webhook_max_content_chars", 2000, 1);
+    static final Setting<Integer> WEBHOOK_FLUSH_MILLIS = Setting.integer("webhook_flush_millis", 2000, 0);
+    static final Setting<Integer> WEBHOOK_TIMEOUT_MILLIS = Setting.integer("webhook_timeout_millis", 5000, 1);
+    static final Setting<Integer> WEBHOOK_MAX_ATTEMPTS = Setting.integer("webhook_max_attempts", 5, 1);
+    static final Setting<Integer> WEBHOOK_RETRY_BASE_MILLIS = Setting.integer("webhook_retry_base_millis", 500, 0);
+    static final Setting<Integer> WEBHOOK_RETRY_MAX_MILLIS = Setting.integer("webhook_retry_max_millis", 30000, 0);
+    static final Setting<Boolean> COMPANION_ENABLED = Setting.bool("companion_enabled", true);
+    static final Setting<Integer> METRICS_EXPORT_SECONDS = Setting.integer("metrics_export_seconds", 15, 0);
+
+    // "channels" goes after the general settings
+    private static final List<Setting<?>> GENERAL = List.of(
+            USE_ACTION_BAR, CONFIG_AUTO_RELOAD, CONFIG_RELOAD_DEBOUNCE_MILLIS);
+
+    private static final List<Setting<?>> REST = List.of(
+            PERMISSION_PROVIDERS, PERMISSION_CACHE_MILLIS,
+            RATE_LIMIT_BURST, RATE_LIMIT_PER_SECOND,
+            DISPATCH_THREADS, DISPATCH_QUEUE_CAPACITY, DISPATCH_BACKPRESSURE, EARLY_CHAT_ROUTING,
+            BRIDGE_ENABLED, BRIDGE_SERVER_ID, BRIDGE_TRANSPORT, BRIDGE_LISTEN, BRIDGE_PEERS, BRIDGE_RELAY,
+            BRIDGE_BATCH_SIZE, BRIDGE_FLUSH_MILLIS,
+            HISTORY_ENABLED, HISTORY_SEGMENT_BYTES, HISTORY_MAX_SEGMENTS, HISTORY_FLUSH_MILLIS,
+            MAILBOX_ENABLED, MAILBOX_FILE_BYTES, MAILBOX_MAX_RECIPIENTS, MAILBOX_MAX_MESSAGES,
+            WEBHOOK_ENABLED, WEBHOOK_URL, WEBHOOK_CONTENT_FIELD, WEBHOOK_QUEUE_CAPACITY, WEBHOOK_BATCH_SIZE,
+            WEBHOOK_MAX_CONTENT_CHARS, WEBHOOK_FLUSH_MILLIS, WEBHOOK_TIMEOUT_MILLIS, WEBHOOK_MAX_ATTEMPTS,
+            WEBHOOK_RETRY_BASE_MILLIS, WEBHOOK_RETRY_MAX_MILLIS,
+            COMPANION_ENABLED, METRICS_EXPORT_SECONDS);
+
+    // Utility class - prevent instantiation
+    private Settings() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // A complete config.json with every default
+    static JsonObject defaults(JsonObject defaultChannel) {
+        JsonObject defaults = new JsonObject();
+        for (Setting<?> setting : GENERAL) {
+            defaults.add(setting.key(), setting.defaultJson());
+        }
+        JsonArray channels = new JsonArray();
+        channels.add(defaultChannel);
+        defaults.add("channels", channels);
+        for (Setting<?> setting : REST) {
+            defaults.add(setting.key(), setting.defaultJson());
+        }
+        return defaults;
+    }
+}
@@ -1,7 +1,12 @@
 package io.github.evelynnlovesyou.evesstaffchat.events;
 
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
+import io.github.evelynnlovesyou.evesstaffchat.mailbox.StaffMailbox;
+import io.github.evelynnlovesyou.evesstaffchat.manager.FloodGuard;
 import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffRoster;
+import io.github.evelynnlovesyou.evesstaffchat.network.CompanionClients;
+import io.github.evelynnlovesyou.evesstaffchat.permissions.PermissionService;
 
 public class PlayerConnectionHandler {
 
@@ -11,10 +16,25 @@ public class PlayerConnectionHandler {
     }
 
     public static void register() {
-        // Clean up toggled state when player disconnects (prevents memory leak)
+        // Add staff to the receiver roster, restore their saved toggle and hand over what they missed as they join
+        ServerPlayConnectionEvents.JOIN.register((handler, sender, server) -> {
+            StaffRoster.refresh(handler.player);
+            CompanionClients.refresh(handler.player);
+            StaffChatManager.restoreToggled(handler.player);
+            StaffMailbox.deliver(handler.player, StaffRoster.channelsOf(handler.player.getGameProfile().getId()));
+        });
+
+        // Clean up online toggled, rate limit and permission cache state when player disconnects (the saved toggle is kept)
         ServerPlayConnectionEvents.DISCONNECT.register((handler, server) -> {
             if (handler.player != null) {
+                if (!StaffRoster.channelsOf(handler.player.getGameProfile().getId()).isEmpty()) {
+                    StaffMailbox.markOffline(handler.player.getGameProfile().getId());
+                }
                 StaffChatManager.removeToggled(handler.player.getGameProfile().getId());
+                FloodGuard.remove(handler.player.getGameProfile().getId());
+                PermissionService.invalidate(handler.player.getGameProfile().getId());
+                CompanionClients.remove(handler.player.getGameProfile().getId());
+                StaffRoster.remove(handler.player.getGameProfile().getId());
             }
         });
     }
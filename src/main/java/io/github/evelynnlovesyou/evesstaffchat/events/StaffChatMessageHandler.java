@@ -1,7 +1,7 @@
 package io.github.evelynnlovesyou.evesstaffchat.events;
 
 import net.fabricmc.fabric.api.message.v1.ServerMessageEvents;
-import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import io.github.evelynnlovesyou.evesstaffchat.pipeline.ChatPipeline;
 
 public class StaffChatMessageHandler {
 
@@ -11,15 +11,6 @@ public class StaffChatMessageHandler {
     }
 
     public static void register() {
-        ServerMessageEvents.ALLOW_CHAT_MESSAGE.register((message, sender, params) -> {
-            if (sender != null && StaffChatManager.isPlayerToggled(sender)) {
-                String rawMessage = message.signedContent();
-                if (!rawMessage.isEmpty()) {
-                    StaffChatManager.sendStaffMessage(sender, rawMessage);
-                }
-                return false;
-            }
-            return true;
-        });
+        ServerMessageEvents.ALLOW_CHAT_MESSAGE.register((message, sender, params) -> ChatPipeline.allow(message, sender));
     }
 }
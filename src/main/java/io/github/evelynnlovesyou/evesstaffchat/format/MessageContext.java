@@ -0,0 +1,7 @@
+package io.github.evelynnlovesyou.evesstaffchat.format;
+
+import java.util.UUID;
+
+// The per-message values a template fills in. world is empty for messages from other servers.
+public record MessageContext(String player, UUID senderId, String channel, String server, String world, long timestamp, String message) {
+}
@@ -0,0 +1,339 @@
+package io.github.evelynnlovesyou.evesstaffchat.format;
+
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.ClickEvent;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.HoverEvent;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+import net.minecraft.network.chat.TextColor;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+// A message format compiled once into styled segments and placeholder slots, so sending a message
+// only fills in the slots. Markup is parsed here and never per message, and never in the values
+// that get filled in, so players can't inject styles through their message or name.
+//
+// Placeholders: %player% %message% %channel% %server% %world% %time% %uuid%
+// Tags: <red> (any color name), <#ff8800>, <bold> <italic> <underlined> <strikethrough> <obfuscated>,
+// <hover:text>, <click:suggest|run|url|copy:value>, </> or </name> closes the innermost tag, <reset>
+// closes all. Hover text and click values may use placeholders. \< is a literal <.
+public final class MessageTemplate {
+
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
+
+    private static final String[] PLACEHOLDERS = {"player", "message", "channel", "server", "world", "time", "uuid"};
+    private static final int NO_SLOT = -1;
+    private static final int TIME_SLOT = 5;
+
+    // Static text or a placeholder slot, with a fixed style or one whose hover/click needs filling in
+    private record Segment(String text, int slot, Style style, DynamicStyle dynamic, Component prebuilt) {
+    }
+
+    private record DynamicStyle(Style base, Slots hover, ClickEvent.Action clickAction, Slots clickValue) {
+
+        Style resolve(String[] values) {
+            Style style = base;
+            if (hover != null) {
+                style = style.withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, Component.literal(hover.fill(values))));
+            }
+            if (clickAction != null) {
+                style = style.withClickEvent(new ClickEvent(clickAction, clickValue.fill(values)));
+            }
+            return style;
+        }
+    }
+
+    // Plain text with placeholders, for hover text and click values. parts alternate literal, slot, literal...
+    private record Slots(String[] literals, int[] slots) {
+
+        boolean isStatic() {
+            return slots.length == 0;
+        }
+
+        String fill(String[] values) {
+            StringBuilder out = new StringBuilder(literals[0]);
+            for (int i = 0; i < slots.length; i++) {
+                out.append(values[slots[i]]).append(literals[i + 1]);
+            }
+            return out.toString();
+        }
+    }
+
+    private final String source;
+    private final Segment[] segments;
+    private final boolean plain;
+    private final boolean usesTime;
+    private final int staticLength;
+
+    private MessageTemplate(String source, Segment[] segments) {
+        this.source = source;
+        this.segments = segments;
+
+        boolean unstyled = true;
+        boolean time = false;
+        int length = 0;
+        for (Segment segment : segments) {
+            unstyled &= segment.dynamic() == null && segment.style().isEmpty();
+            time |= segment.slot() == TIME_SLOT || (segment.dynamic() != null && usesSlot(segment.dynamic(), TIME_SLOT));
+            length += segment.slot() == NO_SLOT ? segment.text().length() : 0;
+        }
+        this.plain = unstyled;
+        this.usesTime = time;
+        this.staticLength = length;
+    }
+
+    // Called when the config loads; messages use the templates the config snapshot holds
+    public static MessageTemplate compile(String format) {
+        return new Parser(format).parse();
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public MutableComponent render(MessageContext context) {
+        String[] values = values(context);
+
+        // Unstyled formats become one literal, which is also the cheapest thing to send
+        if (plain) {
+            int length = staticLength;
+            for (Segment segment : segments) {
+                length += segment.slot() == NO_SLOT ? 0 : values[segment.slot()].length();
+            }
+            StringBuilder out = new StringBuilder(length);
+            for (Segment segment : segments) {
+                out.append(segment.slot() == NO_SLOT ? segment.text() : values[segment.slot()]);
+            }
+            return Component.literal(out.toString());
+        }
+
+        MutableComponent root = Component.empty();
+        for (Segment segment : segments) {
+            if (segment.prebuilt() != null) {
+                root.append(segment.prebuilt());
+                continue;
+            }
+            Style style = segment.dynamic() == null ? segment.style() : segment.dynamic().resolve(values);
+            String text = segment.slot() == NO_SLOT ? segment.text() : values[segment.slot()];
+            root.append(Component.literal(text).setStyle(style));
+        }
+        return root;
+    }
+
+    private String[] values(MessageContext context) {
+        return new String[] {
+            context.player(),
+            context.message(),
+            context.channel(),
+            context.server(),
+            context.world(),
+            usesTime ? TIME.format(Instant.ofEpochMilli(context.timestamp())) : "",
+            context.senderId() == null ? "" : context.senderId().toString(),
+        };
+    }
+
+    private static boolean usesSlot(DynamicStyle dynamic, int slot) {
+        for (Slots slots : new Slots[] {dynamic.hover(), dynamic.clickValue()}) {
+            if (slots != null) {
+                for (int used : slots.slots()) {
+                    if (used == slot) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static int placeholderSlot(String name) {
+        for (int i = 0; i < PLACEHOLDERS.length; i++) {
+            if (PLACEHOLDERS[i].equals(name)) {
+                return i;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    private static final class Parser {
+
+        // One frame per open tag; hover and click are kept apart from the style until a segment needs them
+        private record Frame(String tag, Style style, Slots hover, ClickEvent.Action clickAction, Slots clickValue) {
+
+            Frame withStyle(String name, Style changed) {
+                return new Frame(name, changed, hover, clickAction, clickValue);
+            }
+        }
+
+        private final String format;
+        private final List<Segment> segments = new ArrayList<>();
+        private final Deque<Frame> open = new ArrayDeque<>();
+        private final StringBuilder literal = new StringBuilder();
+
+        Parser(String format) {
+            this.format = format;
+            open.push(new Frame("", Style.EMPTY, null, null, null));
+        }
+
+        MessageTemplate parse() {
+            int i = 0;
+            while (i < format.length()) {
+                char c = format.charAt(i);
+                if (c == '\\' && i + 1 < format.length() && format.charAt(i + 1) == '<') {
+                    literal.append('<');
+                    i += 2;
+                } else if (c == '<' && tag(i)) {
+                    i = format.indexOf('>', i) + 1;
+                } else if (c == '%' && placeholder(i)) {
+                    i = format.indexOf('%', i + 1) + 1;
+                } else {
+                    literal.append(c);
+                    i++;
+                }
+            }
+            flushLiteral();
+            return new MessageTemplate(format, segments.toArray(new Segment[0]));
+        }
+
+        // Returns false for anything that isn't a known tag, which is then kept as text
+        private boolean tag(int start) {
+            int end = format.indexOf('>', start);
+            if (end < 0) {
+                return false;
+            }
+            String body = format.substring(start + 1, end);
+            Frame top = open.peek();
+
+            // Closing tags are matched leniently: any of them closes the innermost open tag
+            if (body.startsWith("/")) {
+                if (open.size() > 1) {
+                    flushLiteral();
+                    open.pop();
+                }
+                return true;
+            }
+            if (body.equalsIgnoreCase("reset")) {
+                flushLiteral();
+                while (open.size() > 1) {
+                    open.pop();
+                }
+                return true;
+            }
+
+            int colon = body.indexOf(':');
+            String name = (colon < 0 ? body : body.substring(0, colon)).toLowerCase(Locale.ROOT);
+            Frame next = switch (name) {
+                case "bold", "b" -> top.withStyle(name, top.style().withBold(true));
+                case "italic", "i" -> top.withStyle(name, top.style().withItalic(true));
+                case "underlined", "underline", "u" -> top.withStyle(name, top.style().withUnderlined(true));
+                case "strikethrough", "st" -> top.withStyle(name, top.style().withStrikethrough(true));
+                case "obfuscated", "obf" -> top.withStyle(name, top.style().withObfuscated(true));
+                case "hover" -> colon < 0 ? null
+                        : new Frame(name, top.style(), slots(body.substring(colon + 1)), top.clickAction(), top.clickValue());
+                case "click" -> click(top, body.substring(colon + 1));
+                default -> color(top, name);
+            };
+            if (next == null) {
+                return false;
+            }
+            flushLiteral();
+            open.push(next);
+            return true;
+        }
+
+        private Frame click(Frame top, String argument) {
+            int colon = argument.indexOf(':');
+            if (colon < 0) {
+                return null;
+            }
+            ClickEvent.Action action = switch (argument.substring(0, colon).toLowerCase(Locale.ROOT)) {
+                case "suggest" -> ClickEvent.Action.SUGGEST_COMMAND;
+                case "run" -> ClickEvent.Action.RUN_COMMAND;
+                case "url" -> ClickEvent.Action.OPEN_URL;
+                case "copy" -> ClickEvent.Action.COPY_TO_CLIPBOARD;
+                default -> null;
+            };
+            return action == null ? null : new Frame("click", top.style(), top.hover(), action, slots(argument.substring(colon + 1)));
+        }
+
+        private Frame color(Frame top, String name) {
+            TextColor color;
+            if (name.startsWith("#")) {
+                color = TextColor.parseColor(name).result().orElse(null);
+            } else {
+                ChatFormatting formatting = ChatFormatting.getByName(name);
+                color = formatting != null && formatting.isColor() ? TextColor.fromLegacyFormat(formatting) : null;
+            }
+            return color == null ? null : top.withStyle(name, top.style().withColor(color));
+        }
+
+        private boolean placeholder(int start) {
+            int end = format.indexOf('%', start + 1);
+            if (end < 0) {
+                return false;
+            }
+            int slot = placeholderSlot(format.substring(start + 1, end));
+            if (slot == NO_SLOT) {
+                return false;
+            }
+            flushLiteral();
+            segments.add(segment(null, slot));
+            return true;
+        }
+
+        private void flushLiteral() {
+            if (!literal.isEmpty()) {
+                segments.add(segment(literal.toString(), NO_SLOT));
+                literal.setLength(0);
+            }
+        }
+
+        private Segment segment(String text, int slot) {
+            Frame top = open.peek();
+            Style style = top.style();
+            if (top.hover() != null && top.hover().isStatic()) {
+                style = style.withHoverEvent(new HoverEvent(HoverEvent.Action.SHOW_TEXT, Component.literal(top.hover().literals()[0])));
+            }
+            if (top.clickAction() != null && top.clickValue().isStatic()) {
+                style = style.withClickEvent(new ClickEvent(top.clickAction(), top.clickValue().literals()[0]));
+            }
+
+            boolean dynamicHover = top.hover() != null && !top.hover().isStatic();
+            boolean dynamicClick = top.clickAction() != null && !top.clickValue().isStatic();
+            DynamicStyle dynamic = dynamicHover || dynamicClick
+                    ? new DynamicStyle(style, dynamicHover ? top.hover() : null, dynamicClick ? top.clickAction() : null, dynamicClick ? top.clickValue() : null)
+                    : null;
+            // Fully static pieces are built once and shared by every message
+            Component prebuilt = slot == NO_SLOT && dynamic == null && !style.isEmpty() ? Component.literal(text).setStyle(style) : null;
+            return new Segment(text, slot, style, dynamic, prebuilt);
+        }
+
+        private static Slots slots(String text) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> slots = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            int i = 0;
+            while (i < text.length()) {
+                int end = text.charAt(i) == '%' ? text.indexOf('%', i + 1) : -1;
+                int slot = end < 0 ? NO_SLOT : placeholderSlot(text.substring(i + 1, end));
+                if (slot != NO_SLOT) {
+                    literals.add(current.toString());
+                    current.setLength(0);
+                    slots.add(slot);
+                    i = end + 1;
+                } else {
+                    current.append(text.charAt(i++));
+                }
+            }
+            literals.add(current.toString());
+            return new Slots(literals.toArray(new String[0]), slots.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+}
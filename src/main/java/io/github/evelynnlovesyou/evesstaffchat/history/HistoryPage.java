@@ -0,0 +1,7 @@
+package io.github.evelynnlovesyou.evesstaffchat.history;
+
+import java.util.List;
+
+// Entries are newest first
+public record HistoryPage(List<JournalEntry> entries, int page, int pages) {
+}
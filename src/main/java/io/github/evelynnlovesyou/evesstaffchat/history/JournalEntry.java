@@ -0,0 +1,7 @@
+package io.github.evelynnlovesyou.evesstaffchat.history;
+
+import java.util.UUID;
+
+// One staff chat line as stored in the journal. origin is empty for messages sent on this server.
+public record JournalEntry(long timestamp, UUID senderId, String senderName, String channel, String origin, String text) {
+}
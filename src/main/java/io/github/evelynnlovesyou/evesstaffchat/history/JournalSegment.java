@@ -0,0 +1,159 @@
+package io.github.evelynnlovesyou.evesstaffchat.history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+/*
+ * A single append-only journal file. Record layout (big endian):
+ *   int length of the rest of the record
+ *   long timestamp, long uuid msb, long uuid lsb
+ *   short channel length, channel utf-8
+ *   short origin length, origin utf-8
+ *   short sender length, sender utf-8
+ *   int text length, text utf-8
+ */
+class JournalSegment {
+
+    static final int HEADER_BYTES = 4;
+    private static final int FIXED_BYTES = 8 + 8 + 8 + 2 + 2 + 2 + 4;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    final int id;
+    final Path path;
+    private FileChannel writeChannel;
+    private long size;
+    private MappedByteBuffer mapped;
+
+    JournalSegment(int id, Path path, long size) {
+        this.id = id;
+        this.path = path;
+        this.size = size;
+    }
+
+    long size() {
+        return size;
+    }
+
+    void openForAppend() throws IOException {
+        if (writeChannel == null) {
+            writeChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // Drops a partially written record left behind by a crash
+            writeChannel.truncate(size);
+            writeChannel.position(size);
+        }
+    }
+
+    // One gathering write per batch instead of one write per record
+    void append(ByteBuffer[] records) throws IOException {
+        ByteBuffer last = records[records.length - 1];
+        while (last.hasRemaining()) {
+            size += writeChannel.write(records);
+        }
+    }
+
+    // Forget anything past the last complete record found while scanning
+    void truncate(long validSize) {
+        size = validSize;
+        mapped = null;
+    }
+
+    void seal() throws IOException {
+        if (writeChannel != null) {
+            writeChannel.force(false);
+            writeChannel.close();
+            writeChannel = null;
+        }
+    }
+
+    // Maps the file up to the current size, remapping only when it has grown since the last read
+    ByteBuffer view() throws IOException {
+        if (mapped == null || mapped.capacity() < size) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+        }
+        return mapped.duplicate();
+    }
+
+    static byte[] encode(JournalEntry entry) {
+        byte[] channel = entry.channel().getBytes(StandardCharsets.UTF_8);
+        byte[] origin = entry.origin().getBytes(StandardCharsets.UTF_8);
+        byte[] sender = entry.senderName().getBytes(StandardCharsets.UTF_8);
+        byte[] text = entry.text().getBytes(StandardCharsets.UTF_8);
+
+        int length = FIXED_BYTES + channel.length + origin.length + sender.length + text.length;
+        ByteBuffer out = ByteBuffer.allocate(HEADER_BYTES + length);
+        out.putInt(length);
+        out.putLong(entry.timestamp());
+        out.putLong(entry.senderId().getMostSignificantBits());
+        out.putLong(entry.senderId().getLeastSignificantBits());
+        out.putShort((short) channel.length).put(channel);
+        out.putShort((short) origin.length).put(origin);
+        out.putShort((short) sender.length).put(sender);
+        out.putInt(text.length).put(text);
+        return out.array();
+    }
+
+    // Returns the record length at offset, or -1 if the bytes there are not a complete record
+    static int recordLength(ByteBuffer view, int offset) {
+        if (offset + HEADER_BYTES > view.limit()) {
+            return -1;
+        }
+        int length = view.getInt(offset);
+        if (length < FIXED_BYTES || length > MAX_RECORD_BYTES || offset + HEADER_BYTES + length > view.limit()) {
+            return -1;
+        }
+        return length;
+    }
+
+    static UUID senderAt(ByteBuffer view, int offset) {
+        return new UUID(view.getLong(offset + HEADER_BYTES + 8), view.getLong(offset + HEADER_BYTES + 16));
+    }
+
+    static String channelAt(ByteBuffer view, int offset) {
+        int position = offset + HEADER_BYTES + 24;
+        return readString(view, position + 2, Short.toUnsignedInt(view.getShort(position)));
+    }
+
+    static String senderNameAt(ByteBuffer view, int offset) {
+        int position = offset + HEADER_BYTES + 24;
+        position += 2 + Short.toUnsignedInt(view.getShort(position));
+        position += 2 + Short.toUnsignedInt(view.getShort(position));
+        return readString(view, position + 2, Short.toUnsignedInt(view.getShort(position)));
+    }
+
+    static JournalEntry decode(ByteBuffer view, int offset) {
+        int position = offset + HEADER_BYTES;
+        long timestamp = view.getLong(position);
+        UUID senderId = new UUID(view.getLong(position + 8), view.getLong(position + 16));
+        position += 24;
+
+        int channelLength = Short.toUnsignedInt(view.getShort(position));
+        String channel = readString(view, position + 2, channelLength);
+        position += 2 + channelLength;
+
+        int originLength = Short.toUnsignedInt(view.getShort(position));
+        String origin = readString(view, position + 2, originLength);
+        position += 2 + originLength;
+
+        int senderLength = Short.toUnsignedInt(view.getShort(position));
+        String sender = readString(view, position + 2, senderLength);
+        position += 2 + senderLength;
+
+        int textLength = view.getInt(position);
+        String text = readString(view, position + 4, textLength);
+        return new JournalEntry(timestamp, senderId, sender, channel, origin, text);
+    }
+
+    private static String readString(ByteBuffer view, int position, int length) {
+        byte[] bytes = new byte[length];
+        view.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,426 @@
+package io.github.evelynnlovesyou.evesstaffchat.history;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class StaffChatJournal {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final Pattern SEGMENT_NAME = Pattern.compile("staffchat-(\\d+)\\.log");
+    public static final int PAGE_SIZE = 10;
+
+    private static final Queue<JournalEntry> PENDING = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean FLUSH_SCHEDULED = new AtomicBoolean();
+    private static volatile ScheduledExecutorService executor;
+
+    // Everything below is only touched on the journal thread, so it needs no locking.
+    // Records are indexed in append (= time) order; each location is segment id << 32 | byte offset.
+    // There is no timestamp index: anything by time walks these lists from the newest end.
+    private static final List<JournalSegment> SEGMENTS = new ArrayList<>();
+    private static final Map<String, RecordList> BY_CHANNEL = new HashMap<>();
+    private static final Map<UUID, RecordList> BY_SENDER = new HashMap<>();
+    // Lower-cased name -> sender and the newest record written under that name, pruned with the segments
+    private static final Map<String, SenderName> SENDER_NAMES = new HashMap<>();
+    private static long[] locations = new long[1024];
+    private static int recordCount;
+    private static long baseRecord;
+    private static Path folder;
+
+    // Utility class - prevent instantiation
+    private StaffChatJournal() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static synchronized void start() {
+        if (!ModConfig.current().historyEnabled || executor != null) {
+            return;
+        }
+
+        ScheduledExecutorService created = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "eves-staff-chat-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor = created;
+        created.execute(StaffChatJournal::open);
+    }
+
+    public static synchronized void stop() {
+        ScheduledExecutorService current = executor;
+        executor = null;
+        if (current == null) {
+            return;
+        }
+
+        current.execute(() -> {
+            flush();
+            close();
+        });
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOGGER.warn("Staff chat journal did not finish writing in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static synchronized void restart() {
+        stop();
+        start();
+    }
+
+    // Queue a message for the background writer. The calling thread never touches the disk.
+    public static void append(UUID senderId, String senderName, String channel, String origin, String text) {
+        ScheduledExecutorService current = executor;
+        if (current == null) {
+            return;
+        }
+
+        PENDING.add(new JournalEntry(System.currentTimeMillis(), senderId, senderName, channel, origin, text));
+        if (FLUSH_SCHEDULED.compareAndSet(false, true)) {
+            current.schedule(StaffChatJournal::flush, Math.max(0, ModConfig.current().historyFlushMillis), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Newest first, page 1 is the most recent PAGE_SIZE messages of the channel
+    public static CompletableFuture<HistoryPage> history(String channel, int page) {
+        return query(() -> {
+            RecordList records = BY_CHANNEL.get(channel);
+            int size = records == null ? 0 : records.size;
+            int pages = Math.max(1, (size + PAGE_SIZE - 1) / PAGE_SIZE);
+            int clampedPage = Math.min(Math.max(1, page), pages);
+            int newest = size - 1 - (clampedPage - 1) * PAGE_SIZE;
+
+            List<JournalEntry> entries = new ArrayList<>(PAGE_SIZE);
+            for (int i = newest; i >= 0 && i > newest - PAGE_SIZE; i--) {
+                JournalEntry entry = readRecord(records.items[i]);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+            return new HistoryPage(entries, clampedPage, pages);
+        });
+    }
+
+    // Matches a known sender name through the sender index, otherwise does a newest-first text scan
+    public static CompletableFuture<HistoryPage> search(String channel, String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        return query(() -> {
+            List<JournalEntry> entries = new ArrayList<>(PAGE_SIZE);
+            SenderName sender = SENDER_NAMES.get(needle);
+            UUID senderId = sender == null ? null : sender.id();
+            RecordList records = senderId != null ? BY_SENDER.get(senderId) : BY_CHANNEL.get(channel);
+
+            for (int i = records == null ? -1 : records.size - 1; i >= 0 && entries.size() < PAGE_SIZE; i--) {
+                JournalEntry entry = readRecord(records.items[i]);
+                if (entry == null || !entry.channel().equals(channel)) {
+                    continue;
+                }
+                if (senderId != null || entry.text().toLowerCase(Locale.ROOT).contains(needle)) {
+                    entries.add(entry);
+                }
+            }
+            return new HistoryPage(entries, 1, 1);
+        });
+    }
+
+    private static CompletableFuture<HistoryPage> query(Supplier<HistoryPage> task) {
+        ScheduledExecutorService current = executor;
+        if (current == null) {
+            return CompletableFuture.completedFuture(new HistoryPage(List.of(), 1, 1));
+        }
+        return CompletableFuture.supplyAsync(task, current);
+    }
+
+    private static void open() {
+        try {
+            folder = ModConfig.getConfigFolder().resolve("history");
+            Files.createDirectories(folder);
+
+            List<JournalSegment> found = new ArrayList<>();
+            try (Stream<Path> files = Files.list(folder)) {
+                for (Path path : (Iterable<Path>) files::iterator) {
+                    Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+                    if (matcher.matches()) {
+                        found.add(new JournalSegment(Integer.parseInt(matcher.group(1)), path, Files.size(path)));
+                    }
+                }
+            }
+            found.sort((a, b) -> Integer.compare(a.id, b.id));
+
+            // A corrupt segment stays in the list unindexed so segment ids remain contiguous,
+            // and is deleted once it rolls off like any other segment
+            boolean lastCorrupt = false;
+            for (JournalSegment segment : found) {
+                lastCorrupt = !scan(segment);
+                SEGMENTS.add(segment);
+            }
+            if (SEGMENTS.isEmpty()) {
+                SEGMENTS.add(newSegment(1));
+            } else if (lastCorrupt) {
+                SEGMENTS.add(newSegment(activeSegment().id + 1));
+            }
+            activeSegment().openForAppend();
+            LOGGER.info("Staff chat journal opened with {} messages in {} segment(s)", recordCount, SEGMENTS.size());
+        } catch (IOException e) {
+            LOGGER.error("Failed to open staff chat journal", e);
+        }
+    }
+
+    // Builds the in-memory index from the record headers without decoding message text.
+    // Returns false without indexing anything if the segment can't be read or a record in it is corrupt.
+    private static boolean scan(JournalSegment segment) {
+        List<ScannedRecord> records = new ArrayList<>();
+        int offset = 0;
+        try {
+            ByteBuffer view = segment.view();
+            int length;
+            while ((length = JournalSegment.recordLength(view, offset)) >= 0) {
+                records.add(new ScannedRecord(offset, JournalSegment.channelAt(view, offset),
+                        JournalSegment.senderAt(view, offset), JournalSegment.senderNameAt(view, offset)));
+                offset += JournalSegment.HEADER_BYTES + length;
+            }
+        } catch (IOException | IndexOutOfBoundsException e) {
+            LOGGER.warn("Skipping unreadable journal segment {}: {}", segment.path.getFileName(), e.getMessage());
+            return false;
+        }
+
+        for (ScannedRecord record : records) {
+            index(segment.id, record.offset(), record.channel(), record.senderId(), record.senderName());
+        }
+        if (offset < segment.size()) {
+            LOGGER.warn("Ignoring {} trailing bytes in {}", segment.size() - offset, segment.path.getFileName());
+            segment.truncate(offset);
+        }
+        return true;
+    }
+
+    private static void flush() {
+        FLUSH_SCHEDULED.set(false);
+        if (SEGMENTS.isEmpty()) {
+            PENDING.clear();
+            return;
+        }
+
+        List<JournalEntry> batch = new ArrayList<>();
+        JournalEntry next;
+        while ((next = PENDING.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        long segmentBytes = Math.max(1024, ModConfig.current().historySegmentBytes);
+        try {
+            JournalSegment active = activeSegment();
+            List<byte[]> chunk = new ArrayList<>(batch.size());
+            List<JournalEntry> chunkEntries = new ArrayList<>(batch.size());
+            long projected = active.size();
+
+            for (JournalEntry entry : batch) {
+                byte[] record = JournalSegment.encode(entry);
+                if (projected > 0 && projected + record.length > segmentBytes) {
+                    write(active, chunk, chunkEntries);
+                    active = rotate();
+                    projected = 0;
+                }
+                chunk.add(record);
+                chunkEntries.add(entry);
+                projected += record.length;
+            }
+            write(active, chunk, chunkEntries);
+        } catch (IOException e) {
+            LOGGER.error("Failed to write {} staff chat message(s) to the journal", batch.size(), e);
+        }
+    }
+
+    private static void write(JournalSegment segment, List<byte[]> chunk, List<JournalEntry> entries) throws IOException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        ByteBuffer[] buffers = new ByteBuffer[chunk.size()];
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = ByteBuffer.wrap(chunk.get(i));
+        }
+
+        long offset = segment.size();
+        segment.append(buffers);
+
+        // Only index records that actually made it to disk
+        for (int i = 0; i < buffers.length; i++) {
+            JournalEntry entry = entries.get(i);
+            index(segment.id, offset, entry.channel(), entry.senderId(), entry.senderName());
+            offset += chunk.get(i).length;
+        }
+        chunk.clear();
+        entries.clear();
+    }
+
+    private static JournalSegment rotate() throws IOException {
+        JournalSegment previous = activeSegment();
+        previous.seal();
+
+        JournalSegment created = newSegment(previous.id + 1);
+        created.openForAppend();
+        SEGMENTS.add(created);
+
+        int maxSegments = Math.max(1, ModConfig.current().historyMaxSegments);
+        while (SEGMENTS.size() > maxSegments) {
+            dropOldestSegment();
+        }
+        return created;
+    }
+
+    private static void dropOldestSegment() {
+        JournalSegment oldest = SEGMENTS.remove(0);
+
+        int dropped = 0;
+        while (dropped < recordCount && (int) (locations[dropped] >>> 32) == oldest.id) {
+            dropped++;
+        }
+        System.arraycopy(locations, dropped, locations, 0, recordCount - dropped);
+        recordCount -= dropped;
+        baseRecord += dropped;
+
+        BY_CHANNEL.values().removeIf(records -> records.dropBelow(baseRecord));
+        BY_SENDER.values().removeIf(records -> records.dropBelow(baseRecord));
+        SENDER_NAMES.values().removeIf(name -> name.lastRecord() < baseRecord);
+
+        try {
+            Files.deleteIfExists(oldest.path);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to delete old journal segment {}: {}", oldest.path.getFileName(), e.getMessage());
+        }
+    }
+
+    private static void index(int segmentId, long offset, String channel, UUID senderId, String senderName) {
+        if (recordCount == locations.length) {
+            locations = Arrays.copyOf(locations, locations.length * 2);
+        }
+        locations[recordCount] = ((long) segmentId << 32) | offset;
+        BY_CHANNEL.computeIfAbsent(channel, id -> new RecordList()).add(baseRecord + recordCount);
+        BY_SENDER.computeIfAbsent(senderId, id -> new RecordList()).add(baseRecord + recordCount);
+        SENDER_NAMES.put(senderName.toLowerCase(Locale.ROOT), new SenderName(senderId, baseRecord + recordCount));
+        recordCount++;
+    }
+
+    // Absolute record numbers stay valid while older segments are dropped
+    private static JournalEntry readRecord(long record) {
+        return record < baseRecord ? null : read(locations[(int) (record - baseRecord)]);
+    }
+
+    private static JournalEntry read(long location) {
+        int segmentId = (int) (location >>> 32);
+        int offset = (int) location;
+        JournalSegment segment = segmentById(segmentId);
+        if (segment == null) {
+            return null;
+        }
+
+        try {
+            ByteBuffer view = segment.view();
+            if (JournalSegment.recordLength(view, offset) < 0) {
+                return null;
+            }
+            return JournalSegment.decode(view, offset);
+        } catch (IOException | IndexOutOfBoundsException | NegativeArraySizeException e) {
+            LOGGER.warn("Failed to read staff chat journal segment {}: {}", segment.path.getFileName(), e.getMessage());
+            return null;
+        }
+    }
+
+    // Segment ids are contiguous, so the list position follows from the first id
+    private static JournalSegment segmentById(int id) {
+        if (SEGMENTS.isEmpty()) {
+            return null;
+        }
+        int index = id - SEGMENTS.get(0).id;
+        return index >= 0 && index < SEGMENTS.size() ? SEGMENTS.get(index) : null;
+    }
+
+    private static JournalSegment activeSegment() {
+        return SEGMENTS.get(SEGMENTS.size() - 1);
+    }
+
+    private static JournalSegment newSegment(int id) {
+        return new JournalSegment(id, folder.resolve(String.format(Locale.ROOT, "staffchat-%08d.log", id)), 0);
+    }
+
+    private static void close() {
+        for (JournalSegment segment : SEGMENTS) {
+            try {
+                segment.seal();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close journal segment {}: {}", segment.path.getFileName(), e.getMessage());
+            }
+        }
+        SEGMENTS.clear();
+        BY_CHANNEL.clear();
+        BY_SENDER.clear();
+        SENDER_NAMES.clear();
+        locations = new long[1024];
+        recordCount = 0;
+        baseRecord = 0;
+    }
+
+    private record ScannedRecord(int offset, String channel, UUID senderId, String senderName) {
+    }
+
+    private record SenderName(UUID id, long lastRecord) {
+    }
+
+    // Growable list of absolute record numbers for one channel or sender
+    private static final class RecordList {
+        private long[] items = new long[16];
+        private int size;
+
+        void add(long record) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = record;
+        }
+
+        // Returns true when nothing is left
+        boolean dropBelow(long firstRecord) {
+            int keep = 0;
+            while (keep < size && items[keep] < firstRecord) {
+                keep++;
+            }
+            if (keep > 0) {
+                System.arraycopy(items, keep, items, 0, size - keep);
+                size -= keep;
+            }
+            return size == 0;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.github.evelynnlovesyou.evesstaffchat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("evesstaffchat.ConfigReload")
+@Label("Staff Chat Config Reload")
+@Description("Parsing the config files into a new snapshot")
+@Category({"Eves Staff Chat", "Config"})
+@Enabled(false)
+@StackTrace(false)
+public class ConfigReloadEvent extends Event {
+
+    @Label("Files")
+    @Description("The files that were parsed again")
+    public String files;
+
+    @Label("Success")
+    public boolean success;
+}
@@ -0,0 +1,24 @@
+package io.github.evelynnlovesyou.evesstaffchat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("evesstaffchat.FanOut")
+@Label("Staff Message Fan-out")
+@Description("Handing one message to every receiver's connection on the server thread")
+@Category({"Eves Staff Chat", "Messages"})
+@Enabled(false)
+@StackTrace(false)
+public class FanOutEvent extends Event {
+
+    @Label("Channel")
+    public String channel;
+
+    @Label("Recipients")
+    public int recipients;
+}
@@ -0,0 +1,29 @@
+package io.github.evelynnlovesyou.evesstaffchat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("evesstaffchat.MessageFormat")
+@Label("Staff Message Format")
+@Description("Rendering a staff message with its channel or bridge format")
+@Category({"Eves Staff Chat", "Messages"})
+@Enabled(false)
+@StackTrace(false)
+public class MessageFormatEvent extends Event {
+
+    @Label("Channel")
+    public String channel;
+
+    @Label("Locale")
+    @Description("Empty for lang.json")
+    public String locale;
+
+    @Label("Remote")
+    @Description("The message came from another server over the bridge")
+    public boolean remote;
+}
@@ -0,0 +1,36 @@
+package io.github.evelynnlovesyou.evesstaffchat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// The staff chat JFR events are all disabled unless a recording turns them on, so an idle
+// event costs one check. Event names are evesstaffchat.<class name without Event>.
+@Name("evesstaffchat.MessageReceived")
+@Label("Staff Message Received")
+@Description("A staff message entering the dispatcher, before the rate limit")
+@Category({"Eves Staff Chat", "Messages"})
+@Enabled(false)
+@StackTrace(false)
+public class MessageReceivedEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Channel")
+    public String channel;
+
+    @Label("Source")
+    @Description("command or toggled")
+    public String source;
+
+    @Label("Length")
+    public int length;
+
+    @Label("Rate Limited")
+    public boolean rateLimited;
+}
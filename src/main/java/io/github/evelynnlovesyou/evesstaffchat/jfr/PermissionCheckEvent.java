@@ -0,0 +1,34 @@
+package io.github.evelynnlovesyou.evesstaffchat.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("evesstaffchat.PermissionCheck")
+@Label("Staff Chat Permission Check")
+@Description("One permission decision, from the cache or the provider chain")
+@Category({"Eves Staff Chat", "Permissions"})
+@Enabled(false)
+@StackTrace(false)
+public class PermissionCheckEvent extends Event {
+
+    @Label("Player")
+    public String player;
+
+    @Label("Node")
+    public String node;
+
+    @Label("Provider")
+    @Description("The provider that answered, empty for cache hits and when none did")
+    public String provider;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+
+    @Label("Allowed")
+    public boolean allowed;
+}
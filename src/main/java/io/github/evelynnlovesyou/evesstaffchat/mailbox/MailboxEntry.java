@@ -0,0 +1,4 @@
+package io.github.evelynnlovesyou.evesstaffchat.mailbox;
+
+public record MailboxEntry(long sequence, long timestamp, String channel, String senderName, String text) {
+}
@@ -0,0 +1,179 @@
+package io.github.evelynnlovesyou.evesstaffchat.mailbox;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/*
+ * Fixed-size ring file split into two halves. Records are appended to the active half; when one
+ * does not fit, the other half is cleared and becomes active, dropping the oldest messages.
+ * Layout (big endian):
+ *   header: int magic, int active half
+ *   each half: records, then an int 0 terminator
+ *   record: int length of the rest, long sequence, long timestamp,
+ *           short channel length, channel utf-8, short sender length, sender utf-8,
+ *           int text length, text utf-8
+ * Only used from the mailbox thread.
+ */
+class MailboxFile {
+
+    private static final int MAGIC = 0x45534D42;
+    private static final int HEADER_BYTES = 8;
+    private static final int FIXED_BYTES = 8 + 8 + 2 + 2 + 4;
+
+    private final FileChannel channel;
+    private final long halfBytes;
+    private int activeHalf;
+    private long writePosition;
+    private long lastSequence;
+
+    private MailboxFile(FileChannel channel, long halfBytes) {
+        this.channel = channel;
+        this.halfBytes = halfBytes;
+    }
+
+    static MailboxFile open(Path path, long fileBytes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MailboxFile file = new MailboxFile(channel, (fileBytes - HEADER_BYTES) / 2);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        // An odd size leaves the last byte unused, so compare with what the halves actually take up
+        boolean valid = channel.size() == HEADER_BYTES + 2 * file.halfBytes && channel.read(header, 0) == HEADER_BYTES && header.getInt(0) == MAGIC;
+        if (!valid) {
+            // New file, or the size setting changed: start over
+            channel.truncate(0);
+            file.activeHalf = 0;
+            file.clearHalf(0);
+            file.clearHalf(1);
+            file.writeHeader();
+            return file;
+        }
+
+        file.activeHalf = header.getInt(4) == 1 ? 1 : 0;
+        file.scan(file.activeHalf ^ 1, entry -> file.lastSequence = entry.sequence());
+        file.writePosition = file.scan(file.activeHalf, entry -> file.lastSequence = entry.sequence());
+        return file;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    // Returns the sequence number given to the entry, or -1 if it is too large to store
+    long append(long timestamp, String channelId, String senderName, String text) throws IOException {
+        byte[] channelBytes = channelId.getBytes(StandardCharsets.UTF_8);
+        byte[] sender = senderName.getBytes(StandardCharsets.UTF_8);
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        int length = FIXED_BYTES + channelBytes.length + sender.length + body.length;
+        if (4L + length + 4 > halfBytes / 4) {
+            return -1;
+        }
+
+        if (writePosition + 4 + length + 4 > halfBytes) {
+            activeHalf ^= 1;
+            clearHalf(activeHalf);
+            writeHeader();
+        }
+
+        long sequence = lastSequence + 1;
+        ByteBuffer out = ByteBuffer.allocate(4 + length + 4);
+        out.putInt(length);
+        out.putLong(sequence);
+        out.putLong(timestamp);
+        out.putShort((short) channelBytes.length).put(channelBytes);
+        out.putShort((short) sender.length).put(sender);
+        out.putInt(body.length).put(body);
+        // Terminator, overwritten by the next record
+        out.putInt(0);
+        out.flip();
+
+        write(out, halfStart(activeHalf) + writePosition);
+        writePosition += 4 + length;
+        lastSequence = sequence;
+        return sequence;
+    }
+
+    // Oldest first
+    void forEach(Consumer<MailboxEntry> action) throws IOException {
+        scan(activeHalf ^ 1, action);
+        scan(activeHalf, action);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    // Reads one half up to its terminator and returns the end position of its last record
+    private long scan(int half, Consumer<MailboxEntry> action) throws IOException {
+        ByteBuffer view = channel.map(FileChannel.MapMode.READ_ONLY, halfStart(half), halfBytes);
+        int position = 0;
+        long previous = Long.MIN_VALUE;
+        while (position + 4 <= halfBytes) {
+            int length = view.getInt(position);
+            if (length < FIXED_BYTES || position + 4L + length > halfBytes) {
+                break;
+            }
+            MailboxEntry entry = decode(view, position + 4);
+            // Sequences only grow, anything else is stale data from an earlier pass
+            if (entry.sequence() <= previous) {
+                break;
+            }
+            previous = entry.sequence();
+            action.accept(entry);
+            position += 4 + length;
+        }
+        return position;
+    }
+
+    private static MailboxEntry decode(ByteBuffer view, int position) {
+        long sequence = view.getLong(position);
+        long timestamp = view.getLong(position + 8);
+        position += 16;
+
+        int channelLength = Short.toUnsignedInt(view.getShort(position));
+        String channelId = readString(view, position + 2, channelLength);
+        position += 2 + channelLength;
+
+        int senderLength = Short.toUnsignedInt(view.getShort(position));
+        String sender = readString(view, position + 2, senderLength);
+        position += 2 + senderLength;
+
+        int textLength = view.getInt(position);
+        String text = readString(view, position + 4, textLength);
+        return new MailboxEntry(sequence, timestamp, channelId, sender, text);
+    }
+
+    private static String readString(ByteBuffer view, int position, int length) {
+        byte[] bytes = new byte[length];
+        view.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void clearHalf(int half) throws IOException {
+        write(ByteBuffer.allocate(4), halfStart(half));
+        if (channel.size() < halfStart(half) + halfBytes) {
+            write(ByteBuffer.allocate(1), halfStart(half) + halfBytes - 1);
+        }
+        writePosition = 0;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(activeHalf).flip();
+        write(header, 0);
+    }
+
+    private long halfStart(int half) {
+        return HEADER_BYTES + half * halfBytes;
+    }
+
+    private void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+}
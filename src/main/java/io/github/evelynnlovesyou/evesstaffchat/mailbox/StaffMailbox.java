@@ -0,0 +1,314 @@
+package io.github.evelynnlovesyou.evesstaffchat.mailbox;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ConfigSnapshot;
+import io.github.evelynnlovesyou.evesstaffchat.config.LocaleTable;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Staff messages sent while a staff member was offline, delivered as one summary when they join.
+// Each message is written once to the ring file (mailbox.bin). An offline staff member only holds
+// a reference into it: the sequence number of the last message written before they left. That
+// costs 24 bytes per player, and mailbox_max_recipients caps the count (oldest leaver goes first).
+// mailbox.idx stores the references as int magic, int count, then count * (long msb, long lsb, long sequence).
+public class StaffMailbox {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final String FILE_NAME = "mailbox.bin";
+    private static final String INDEX_NAME = "mailbox.idx";
+    private static final int INDEX_MAGIC = 0x45534D49;
+    private static final long INDEX_WRITE_DELAY_MILLIS = 1000;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+
+    private static volatile ScheduledExecutorService executor;
+    // Lets senders skip queueing a write when no staff member is away
+    private static volatile boolean anyoneAway;
+
+    // Only touched on the mailbox thread. Ordered by when the player left, oldest first.
+    private static final Map<UUID, Long> WATERMARKS = new LinkedHashMap<>();
+    private static MailboxFile file;
+    private static boolean indexWriteScheduled;
+
+    // Utility class - prevent instantiation
+    private StaffMailbox() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static synchronized void start() {
+        ConfigSnapshot config = ModConfig.current();
+        if (!config.mailboxEnabled || executor != null) {
+            return;
+        }
+
+        ScheduledExecutorService created = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "eves-staff-chat-mailbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor = created;
+        created.execute(() -> open(config.mailboxFileBytes));
+    }
+
+    public static synchronized void stop() {
+        ScheduledExecutorService current = executor;
+        executor = null;
+        if (current == null) {
+            return;
+        }
+
+        current.execute(StaffMailbox::close);
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOGGER.warn("Staff mailbox did not finish writing in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static synchronized void restart() {
+        stop();
+        start();
+    }
+
+    // A staff member left; everything written from now on is waiting for them
+    public static void markOffline(UUID playerId) {
+        ScheduledExecutorService current = executor;
+        if (current == null) {
+            return;
+        }
+
+        anyoneAway = true;
+        submit(current, () -> {
+            if (file == null) {
+                return;
+            }
+            WATERMARKS.remove(playerId);
+            WATERMARKS.put(playerId, file.lastSequence());
+            anyoneAway = true;
+
+            int limit = Math.max(0, ModConfig.current().mailboxMaxRecipients);
+            Iterator<UUID> oldest = WATERMARKS.keySet().iterator();
+            while (WATERMARKS.size() > limit && oldest.hasNext()) {
+                oldest.next();
+                oldest.remove();
+            }
+            scheduleIndexWrite();
+        });
+    }
+
+    // Queue a message for the background writer. The calling thread never touches the disk.
+    public static void record(String channelId, String senderName, String text) {
+        ScheduledExecutorService current = executor;
+        if (current == null || !anyoneAway) {
+            return;
+        }
+
+        long timestamp = System.currentTimeMillis();
+        submit(current, () -> {
+            if (file == null) {
+                return;
+            }
+            try {
+                file.append(timestamp, channelId, senderName, text);
+            } catch (IOException e) {
+                LOGGER.error("Failed to write to {}", FILE_NAME, e);
+            }
+        });
+    }
+
+    // Called on join after the roster refresh, so only channels the player can still read are included
+    public static void deliver(ServerPlayer player, Set<String> channelIds) {
+        ScheduledExecutorService current = executor;
+        if (current == null || !anyoneAway) {
+            return;
+        }
+
+        UUID id = player.getGameProfile().getId();
+        MinecraftServer server = player.server;
+        String locale = ModConfig.current().locales.localeOf(player);
+        submit(current, () -> {
+            Long watermark = WATERMARKS.remove(id);
+            if (watermark == null || file == null) {
+                return;
+            }
+            anyoneAway = !WATERMARKS.isEmpty();
+            scheduleIndexWrite();
+            if (channelIds.isEmpty()) {
+                return;
+            }
+
+            // Keep only the newest entries so a long absence can't pull the whole file into memory
+            int limit = Math.max(1, ModConfig.current().mailboxMaxMessages);
+            ArrayDeque<MailboxEntry> newest = new ArrayDeque<>(limit);
+            int[] total = new int[1];
+            try {
+                file.forEach(entry -> {
+                    if (entry.sequence() <= watermark || !channelIds.contains(entry.channel())) {
+                        return;
+                    }
+                    total[0]++;
+                    if (newest.size() == limit) {
+                        newest.removeFirst();
+                    }
+                    newest.addLast(entry);
+                });
+            } catch (IOException e) {
+                LOGGER.error("Failed to read {}", FILE_NAME, e);
+                return;
+            }
+
+            if (total[0] > 0) {
+                Component summary = summarize(newest, total[0], locale);
+                server.execute(() -> {
+                    if (!player.hasDisconnected()) {
+                        player.sendSystemMessage(summary);
+                    }
+                });
+            }
+        });
+    }
+
+    private static Component summarize(ArrayDeque<MailboxEntry> entries, int total, String locale) {
+        LocaleTable locales = ModConfig.current().locales;
+        StringBuilder text = new StringBuilder(locales.get(locale, "mailbox_header").replace("%count%", String.valueOf(total)));
+        if (total > entries.size()) {
+            text.append('\n').append(locales.get(locale, "mailbox_more").replace("%count%", String.valueOf(total - entries.size())));
+        }
+        String entryFormat = locales.get(locale, "mailbox_entry");
+        for (MailboxEntry entry : entries) {
+            text.append('\n').append(entryFormat
+                    .replace("%time%", TIME.format(Instant.ofEpochMilli(entry.timestamp())))
+                    .replace("%channel%", entry.channel())
+                    .replace("%player%", entry.senderName())
+                    .replace("%message%", entry.text()));
+        }
+        return Component.literal(text.toString());
+    }
+
+    private static void open(int fileBytes) {
+        Path folder;
+        try {
+            folder = ModConfig.getConfigFolder();
+            file = MailboxFile.open(folder.resolve(FILE_NAME), Math.max(4096, fileBytes));
+        } catch (IOException e) {
+            LOGGER.error("Failed to open {}, offline staff messages are disabled", FILE_NAME, e);
+            return;
+        }
+        readIndex(folder.resolve(INDEX_NAME));
+
+        // A recreated ring file starts counting again, so old references would skip new messages
+        long last = file.lastSequence();
+        WATERMARKS.replaceAll((id, watermark) -> Math.min(watermark, last));
+        anyoneAway = !WATERMARKS.isEmpty();
+    }
+
+    private static void close() {
+        if (indexWriteScheduled) {
+            writeIndex();
+        }
+        WATERMARKS.clear();
+        anyoneAway = false;
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close {}: {}", FILE_NAME, e.getMessage());
+            }
+            file = null;
+        }
+    }
+
+    private static void readIndex(Path path) {
+        WATERMARKS.clear();
+        if (!Files.exists(path)) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+            if (buffer.remaining() < 8 || buffer.getInt() != INDEX_MAGIC) {
+                LOGGER.warn("Ignoring unreadable {}", INDEX_NAME);
+                return;
+            }
+            int count = buffer.getInt();
+            for (int i = 0; i < count && buffer.remaining() >= 24; i++) {
+                WATERMARKS.put(new UUID(buffer.getLong(), buffer.getLong()), buffer.getLong());
+            }
+        } catch (IOException | BufferUnderflowException e) {
+            LOGGER.warn("Failed to load {}: {}", INDEX_NAME, e.getMessage());
+        }
+    }
+
+    // Coalesces bursts of joins and leaves into one snapshot write
+    private static void scheduleIndexWrite() {
+        if (indexWriteScheduled) {
+            return;
+        }
+        indexWriteScheduled = true;
+        ScheduledExecutorService current = executor;
+        try {
+            if (current != null) {
+                current.schedule(() -> {
+                    if (indexWriteScheduled) {
+                        writeIndex();
+                    }
+                }, INDEX_WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            // Stopping, close() writes it
+        }
+    }
+
+    // Tasks racing a stop are dropped rather than failing the caller
+    private static void submit(ScheduledExecutorService current, Runnable task) {
+        try {
+            current.execute(task);
+        } catch (RejectedExecutionException e) {
+            LOGGER.debug("Staff mailbox is stopping, dropped a task");
+        }
+    }
+
+    private static void writeIndex() {
+        indexWriteScheduled = false;
+        ByteBuffer buffer = ByteBuffer.allocate(8 + WATERMARKS.size() * 24);
+        buffer.putInt(INDEX_MAGIC).putInt(WATERMARKS.size());
+        for (Map.Entry<UUID, Long> entry : WATERMARKS.entrySet()) {
+            buffer.putLong(entry.getKey().getMostSignificantBits()).putLong(entry.getKey().getLeastSignificantBits());
+            buffer.putLong(entry.getValue());
+        }
+
+        try {
+            Path folder = ModConfig.getConfigFolder();
+            Path temp = folder.resolve(INDEX_NAME + ".tmp");
+            Files.write(temp, buffer.array());
+            Files.move(temp, folder.resolve(INDEX_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.error("Failed to save {}", INDEX_NAME, e);
+        }
+    }
+}
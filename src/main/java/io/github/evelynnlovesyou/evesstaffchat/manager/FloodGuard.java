@@ -0,0 +1,55 @@
+package io.github.evelynnlovesyou.evesstaffchat.manager;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ConfigSnapshot;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Per-sender token buckets for staff messages. Each bucket is a single AtomicLong holding the
+// time at which it will be full again (the GCRA form of a token bucket), so a check is one CAS
+// with no locks and no background refill.
+public class FloodGuard {
+
+    private static final Map<UUID, AtomicLong> BUCKETS = new ConcurrentHashMap<>();
+
+    // Utility class - prevent instantiation
+    private FloodGuard() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // Takes a token for the sender, returns false if their bucket is empty
+    public static boolean tryAcquire(UUID senderId) {
+        ConfigSnapshot config = ModConfig.current();
+        if (config.rateLimitPerSecond <= 0 || config.rateLimitBurst <= 0) {
+            return true;
+        }
+
+        long interval = (long) (1_000_000_000L / config.rateLimitPerSecond);
+        long capacity = interval * config.rateLimitBurst;
+        AtomicLong fullAt = BUCKETS.computeIfAbsent(senderId, id -> new AtomicLong(Long.MIN_VALUE));
+
+        long now = System.nanoTime();
+        while (true) {
+            long current = fullAt.get();
+            long base = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = base + interval;
+            if (next - now > capacity) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public static void remove(UUID playerId) {
+        BUCKETS.remove(playerId);
+    }
+
+    public static void clear() {
+        BUCKETS.clear();
+    }
+}
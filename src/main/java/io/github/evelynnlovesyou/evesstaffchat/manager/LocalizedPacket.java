@@ -0,0 +1,67 @@
+package io.github.evelynnlovesyou.evesstaffchat.manager;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.LocaleTable;
+import io.github.evelynnlovesyou.evesstaffchat.network.StaffChatPayload;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.network.protocol.game.ClientboundSystemChatPacket;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+// One message as system chat packets, rendered at most once per locale among its receivers.
+// The lang.json version is built up front, so it can be done off the server thread; a locale is
+// only rendered when the first receiver using it comes up during delivery. The localizer returns
+// null when the locale doesn't change this message, and the lang.json packet is reused.
+// Server thread only after construction.
+public final class LocalizedPacket {
+
+    private final ClientboundSystemChatPacket fallback;
+    private final Function<String, Component> localizer;
+    private Map<String, ClientboundSystemChatPacket> localized;
+    private StaffChatPayload payload;
+    private Packet<?> compact;
+
+    public LocalizedPacket(Component fallback, Function<String, Component> localizer) {
+        this.fallback = new ClientboundSystemChatPacket(fallback, false);
+        this.localizer = localizer;
+    }
+
+    // The same packet for every locale
+    public static LocalizedPacket of(Component component) {
+        return new LocalizedPacket(component, null);
+    }
+
+    // Sent instead of the chat packet to players running the client companion
+    public LocalizedPacket withCompact(StaffChatPayload payload) {
+        this.payload = payload;
+        return this;
+    }
+
+    // Built when the first companion receiver comes up, so servers without companions never build it.
+    // Null when the message has no compact form.
+    public Packet<?> compact() {
+        if (compact == null && payload != null) {
+            compact = ServerPlayNetworking.createS2CPacket(payload);
+        }
+        return compact;
+    }
+
+    public ClientboundSystemChatPacket packet(String locale) {
+        if (localizer == null || locale.equals(LocaleTable.DEFAULT)) {
+            return fallback;
+        }
+        if (localized == null) {
+            localized = new HashMap<>(4);
+        }
+        ClientboundSystemChatPacket packet = localized.get(locale);
+        if (packet == null) {
+            Component component = localizer.apply(locale);
+            packet = component == null ? fallback : new ClientboundSystemChatPacket(component, false);
+            localized.put(locale, packet);
+        }
+        return packet;
+    }
+}
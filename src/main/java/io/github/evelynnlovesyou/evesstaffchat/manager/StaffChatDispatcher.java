@@ -0,0 +1,201 @@
+package io.github.evelynnlovesyou.evesstaffchat.manager;
+
+import io.github.evelynnlovesyou.evesstaffchat.commands.StaffChatCommand;
+import io.github.evelynnlovesyou.evesstaffchat.config.ChannelConfig;
+import io.github.evelynnlovesyou.evesstaffchat.config.ConfigSnapshot;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.format.MessageContext;
+import io.github.evelynnlovesyou.evesstaffchat.jfr.MessageReceivedEvent;
+import io.github.evelynnlovesyou.evesstaffchat.metrics.StaffChatMetrics;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class StaffChatDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final ThreadPoolExecutor[] NO_LANES = new ThreadPoolExecutor[0];
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    // A flood of drops logs one summary per interval instead of a line per message
+    private static final AtomicLong DROPS_SINCE_WARNING = new AtomicLong();
+    private static final AtomicLong NEXT_DROP_WARNING = new AtomicLong(System.nanoTime());
+
+    // Each lane is a single thread, and a sender always maps to the same lane, so messages
+    // from one sender are formatted and handed back to the server thread in order
+    private static volatile ThreadPoolExecutor[] lanes = NO_LANES;
+
+    public enum Source {
+        COMMAND,
+        TOGGLED
+    }
+
+    // Utility class - prevent instantiation
+    private StaffChatDispatcher() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static synchronized void start() {
+        ConfigSnapshot config = ModConfig.current();
+        int threads = Math.max(0, config.dispatchThreads);
+        if (threads == 0) {
+            lanes = NO_LANES;
+            LOGGER.info("Staff chat dispatch threads disabled - messages are handled on the server thread");
+            return;
+        }
+
+        int capacity = Math.max(1, config.dispatchQueueCapacity / threads);
+        RejectedExecutionHandler policy = backpressurePolicy(config.dispatchBackpressure);
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadPoolExecutor[] created = new ThreadPoolExecutor[threads];
+        for (int i = 0; i < threads; i++) {
+            created[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(capacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "eves-staff-chat-dispatch-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    policy);
+        }
+        lanes = created;
+    }
+
+    // Queued work on the old lanes still finishes; new messages go to the new lanes
+    public static synchronized void restart() {
+        ThreadPoolExecutor[] old = lanes;
+        start();
+        for (ThreadPoolExecutor lane : old) {
+            lane.shutdown();
+        }
+    }
+
+    public static synchronized void stop() {
+        ThreadPoolExecutor[] old = lanes;
+        lanes = NO_LANES;
+        for (ThreadPoolExecutor lane : old) {
+            lane.shutdown();
+        }
+        for (ThreadPoolExecutor lane : old) {
+            try {
+                if (!lane.awaitTermination(2, TimeUnit.SECONDS)) {
+                    lane.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                lane.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Server thread only. Everything read from the player (permissions, world) is resolved here, the lanes
+    // only get plain values.
+    public static void dispatch(ServerPlayer sender, ChannelConfig channel, String message, Source source) {
+        if (sender == null || sender.server == null) return;
+
+        long received = System.nanoTime();
+
+        // Checked before queueing so a flood never reaches the lanes or any receiver
+        boolean allowed = FloodGuard.tryAcquire(sender.getGameProfile().getId());
+        recordReceived(sender, channel, message, source, !allowed);
+        if (!allowed) {
+            StaffChatMetrics.RATE_LIMITED.increment();
+            sender.server.execute(() -> StaffChatCommand.sendMessage(sender, "rate_limited"));
+            return;
+        }
+        StaffChatMetrics.recordMessage(source);
+
+        // The permission cache makes this cheap, and providers like op read server state that is not thread safe
+        if (source == Source.COMMAND && !StaffChatManager.hasPermission(sender, channel.sendPermission())) {
+            StaffChatCommand.sendMessage(sender, "no_permission_send");
+            return;
+        }
+
+        MinecraftServer server = sender.server;
+        MessageContext context = StaffChatManager.messageContext(sender, channel, message);
+        Runnable task = () -> process(server, channel, context, received);
+        int hash = sender.getGameProfile().getId().hashCode();
+        while (true) {
+            ThreadPoolExecutor[] current = lanes;
+            if (current.length == 0) {
+                task.run();
+                return;
+            }
+            try {
+                current[Math.floorMod(hash, current.length)].execute(task);
+                return;
+            } catch (RejectedExecutionException e) {
+                // The lane was shut down by a restart or stop after it was read; use what replaced it
+                if (lanes == current) {
+                    LOGGER.debug("Staff chat dispatch is stopping, dropped a message from {}", context.player());
+                    return;
+                }
+            }
+        }
+    }
+
+    // Runs on a dispatch lane: formatting and publishing, then delivery back on the server thread
+    private static void process(MinecraftServer server, ChannelConfig channel, MessageContext context, long received) {
+        try {
+            LocalizedPacket packet = StaffChatManager.prepareStaffMessage(channel, context);
+            server.execute(() -> StaffChatMetrics.recordFanOut(received, StaffChatManager.deliver(server, channel, packet)));
+        } catch (Exception e) {
+            LOGGER.error("Failed to dispatch staff chat message from {}", context.player(), e);
+        }
+    }
+
+    private static void recordReceived(ServerPlayer sender, ChannelConfig channel, String message, Source source, boolean rateLimited) {
+        MessageReceivedEvent event = new MessageReceivedEvent();
+        if (event.isEnabled()) {
+            event.player = sender.getGameProfile().getName();
+            event.channel = channel.id();
+            event.source = source.name().toLowerCase(Locale.ROOT);
+            event.length = message.length();
+            event.rateLimited = rateLimited;
+            event.commit();
+        }
+    }
+
+    // The name is one of the checked, lower-case dispatch_backpressure values. caller_runs does the
+    // work on the sending thread, usually the server thread, and can reorder a sender's messages.
+    // A lane that was shut down rejects instead, so dispatch can retry on the current lanes.
+    private static RejectedExecutionHandler backpressurePolicy(String name) {
+        return (task, executor) -> {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Staff chat dispatch lane stopped");
+            }
+            switch (name) {
+                case "caller_runs" -> task.run();
+                case "drop_oldest" -> {
+                    if (executor.getQueue().poll() != null) {
+                        recordDrop();
+                    }
+                    executor.execute(task);
+                }
+                default -> recordDrop();
+            }
+        };
+    }
+
+    private static void recordDrop() {
+        StaffChatMetrics.DISPATCH_DROPPED.increment();
+        DROPS_SINCE_WARNING.incrementAndGet();
+        long now = System.nanoTime();
+        long next = NEXT_DROP_WARNING.get();
+        if (now - next >= 0 && NEXT_DROP_WARNING.compareAndSet(next, now + DROP_WARNING_INTERVAL_NANOS)) {
+            LOGGER.warn("Staff chat dispatch queue full - dropped {} message(s)", DROPS_SINCE_WARNING.getAndSet(0));
+        }
+    }
+}
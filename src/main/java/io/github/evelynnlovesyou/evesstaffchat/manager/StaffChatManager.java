@@ -1,16 +1,38 @@
 package io.github.evelynnlovesyou.evesstaffchat.manager;
 
+import io.github.evelynnlovesyou.evesstaffchat.bridge.BridgeMessage;
+import io.github.evelynnlovesyou.evesstaffchat.bridge.StaffChatBridge;
+import io.github.evelynnlovesyou.evesstaffchat.config.ChannelConfig;
+import io.github.evelynnlovesyou.evesstaffchat.config.ConfigSnapshot;
+import io.github.evelynnlovesyou.evesstaffchat.config.ConfigWatcher;
+import io.github.evelynnlovesyou.evesstaffchat.config.LocaleTable;
 import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.format.MessageContext;
+import io.github.evelynnlovesyou.evesstaffchat.format.MessageTemplate;
+import io.github.evelynnlovesyou.evesstaffchat.history.StaffChatJournal;
+import io.github.evelynnlovesyou.evesstaffchat.jfr.FanOutEvent;
+import io.github.evelynnlovesyou.evesstaffchat.jfr.MessageFormatEvent;
+import io.github.evelynnlovesyou.evesstaffchat.mailbox.StaffMailbox;
+import io.github.evelynnlovesyou.evesstaffchat.metrics.PrometheusExporter;
+import io.github.evelynnlovesyou.evesstaffchat.network.CompanionClients;
+import io.github.evelynnlovesyou.evesstaffchat.network.StaffChatPayload;
+import io.github.evelynnlovesyou.evesstaffchat.metrics.StaffChatMetrics;
+import io.github.evelynnlovesyou.evesstaffchat.permissions.PermissionService;
+import io.github.evelynnlovesyou.evesstaffchat.pipeline.ChatPipeline;
+import io.github.evelynnlovesyou.evesstaffchat.watchlist.Watchlist;
+import io.github.evelynnlovesyou.evesstaffchat.webhook.WebhookRelay;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.Packet;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.ChatVisiblity;
 
-import net.luckperms.api.LuckPerms;
-import net.luckperms.api.LuckPermsProvider;
-import net.luckperms.api.model.user.User;
-
-import java.util.Set;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,96 +40,300 @@ import org.slf4j.LoggerFactory;
 public class StaffChatManager {
 
     private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
-    private static final Set<UUID> TOGGLED = ConcurrentHashMap.newKeySet();
-    private static volatile LuckPerms luckPermsApi;
-    private static volatile boolean luckPermsMissing = false;
-    private static volatile boolean luckPermsWarned = false;
+    private static final UUID ALERT_SENDER_ID = new UUID(0L, 0L);
+    // Player -> id of the channel their public chat is routed to
+    private static final Map<UUID, String> ROUTED = new ConcurrentHashMap<>();
+    // The snapshot the running services were started from, null while stopped. Guarded by the class lock.
+    private static ConfigSnapshot applied;
 
     // Utility class - prevent instantiation
     private StaffChatManager() {
         throw new UnsupportedOperationException("Utility class");
     }
 
-    public static void init() {
-        initLuckPerms();
+    public static void init(MinecraftServer minecraftServer) {
+        synchronized (StaffChatManager.class) {
+            applied = ModConfig.current();
+        }
+        PermissionService.start(minecraftServer);
+        StaffRoster.rebuild(minecraftServer);
+        StaffChatDispatcher.start();
+        StaffChatJournal.start();
+        StaffMailbox.start();
+        WebhookRelay.start();
+        StaffChatBridge.start(minecraftServer);
+        PrometheusExporter.start();
+        Watchlist.load();
+        ChatPipeline.rebuild();
+        ConfigWatcher.start(config -> onFilesChanged(minecraftServer));
+    }
+
+    // Config watcher thread
+    private static void onFilesChanged(MinecraftServer minecraftServer) {
+        Watchlist.load();
+        applyConfig(minecraftServer, false);
     }
 
-    private static synchronized void initLuckPerms() {
-        if (luckPermsApi != null || luckPermsMissing) {
+    // Brings the services in line with ModConfig.current(), restarting only those whose settings
+    // changed. Stopping the journal, mailbox or webhook waits for their last writes, so this runs on
+    // the thread that loaded the files and never on the server thread; only the player list work is
+    // handed to the server. reloadPermissions also restarts the permission providers, which re-reads
+    // permissions.json.
+    public static synchronized void applyConfig(MinecraftServer minecraftServer, boolean reloadPermissions) {
+        ConfigSnapshot previous = applied;
+        ConfigSnapshot config = ModConfig.current();
+        if (previous == null) {
+            // Shut down
             return;
         }
+        applied = config;
+        // The watchlist may have been reloaded
+        ChatPipeline.rebuild();
 
-        try {
-            luckPermsApi = LuckPermsProvider.get();
-            LOGGER.info("Successfully detected and initialized LuckPerms API");
-        } catch (NoClassDefFoundError ignored) {
-            luckPermsMissing = true;
-            if (!luckPermsWarned) {
-                LOGGER.warn("LuckPerms not detected - using fallback permission system (OP only)");
-                luckPermsWarned = true;
-            }
-        } catch (Exception ignored) {
-            if (!luckPermsWarned) {
-                LOGGER.warn("LuckPerms unavailable - will retry when available");
-                luckPermsWarned = true;
+        boolean permissions = reloadPermissions || changed(previous, config, c -> c.permissionProviders);
+        if (permissions) {
+            PermissionService.restart(minecraftServer);
+        } else if (changed(previous, config, c -> c.permissionCacheMillis)) {
+            PermissionService.invalidateAll();
+        }
+        if (changed(previous, config, c -> c.dispatchThreads, c -> c.dispatchQueueCapacity, c -> c.dispatchBackpressure)) {
+            StaffChatDispatcher.restart();
+        }
+        if (changed(previous, config, c -> c.historyEnabled)) {
+            StaffChatJournal.restart();
+        }
+        if (changed(previous, config, c -> c.mailboxEnabled, c -> c.mailboxFileBytes)) {
+            StaffMailbox.restart();
+        }
+        if (changed(previous, config, c -> c.webhookEnabled, c -> c.webhookUrl, c -> c.webhookContentField,
+                c -> c.webhookQueueCapacity, c -> c.webhookBatchSize, c -> c.webhookMaxContentChars,
+                c -> c.webhookFlushMillis, c -> c.webhookTimeoutMillis, c -> c.webhookMaxAttempts,
+                c -> c.webhookRetryBaseMillis, c -> c.webhookRetryMaxMillis)) {
+            WebhookRelay.restart();
+        }
+        if (changed(previous, config, c -> c.bridgeEnabled, c -> c.bridgeServerId, c -> c.bridgeTransport,
+                c -> c.bridgeListen, c -> c.bridgePeers, c -> c.bridgeBatchSize, c -> c.bridgeFlushMillis)) {
+            StaffChatBridge.restart(minecraftServer);
+        }
+        if (changed(previous, config, c -> c.metricsExportSeconds)) {
+            PrometheusExporter.restart();
+        }
+        if (changed(previous, config, c -> c.configAutoReload, c -> c.configReloadDebounceMillis)) {
+            ConfigWatcher.restart(snapshot -> onFilesChanged(minecraftServer));
+        }
+
+        boolean roster = permissions || changed(previous, config, c -> c.channels);
+        boolean companions = changed(previous, config, c -> c.companionEnabled);
+        if (roster || companions) {
+            minecraftServer.execute(() -> {
+                if (roster) {
+                    StaffRoster.rebuild(minecraftServer);
+                }
+                if (companions) {
+                    CompanionClients.rebuild(minecraftServer);
+                }
+            });
+        }
+    }
+
+    @SafeVarargs
+    private static boolean changed(ConfigSnapshot previous, ConfigSnapshot config, Function<ConfigSnapshot, Object>... settings) {
+        for (Function<ConfigSnapshot, Object> setting : settings) {
+            if (!Objects.equals(setting.apply(previous), setting.apply(config))) {
+                return true;
             }
         }
+        return false;
+    }
+
+    public static void shutdown() {
+        synchronized (StaffChatManager.class) {
+            applied = null;
+        }
+        ConfigWatcher.stop();
+        ChatPipeline.clear();
+        PrometheusExporter.stop();
+        StaffChatBridge.stop();
+        CompanionClients.clear();
+        StaffChatDispatcher.stop();
+        StaffChatJournal.stop();
+        StaffMailbox.stop();
+        WebhookRelay.stop();
+        ToggleStore.flush();
+        FloodGuard.clear();
+        PermissionService.stop();
+        StaffRoster.clear();
     }
 
+    // Only forgets the online state - the persisted routing comes back on the next join
     public static void removeToggled(UUID playerId) {
-        TOGGLED.remove(playerId);
+        ROUTED.remove(playerId);
     }
 
-    public static boolean toggle(ServerPlayer player) {
+    public static void restoreToggled(ServerPlayer player) {
         UUID id = player.getGameProfile().getId();
-        if (TOGGLED.contains(id)) {
-            TOGGLED.remove(id);
-            return false;
+        String channelId = ToggleStore.getChannel(id);
+        if (channelId == null) {
+            return;
+        }
+
+        // Don't route chat into a channel that was removed or that the player lost access to while offline
+        ChannelConfig channel = ModConfig.getChannel(channelId);
+        if (channel != null && hasPermission(player, channel.togglePermission())) {
+            ROUTED.put(id, channelId);
         } else {
-            TOGGLED.add(id);
-            return true;
+            ToggleStore.set(id, null);
         }
     }
 
+    // Routes the player's chat into the channel, or back to public chat if it already was. Returns true when routed.
+    public static boolean toggle(ServerPlayer player, ChannelConfig channel) {
+        UUID id = player.getGameProfile().getId();
+        boolean enabled = !channel.id().equals(ROUTED.get(id));
+        if (enabled) {
+            ROUTED.put(id, channel.id());
+        } else {
+            ROUTED.remove(id);
+        }
+        ToggleStore.set(id, enabled ? channel.id() : null);
+        return enabled;
+    }
+
     public static boolean isPlayerToggled(ServerPlayer player) {
-        return TOGGLED.contains(player.getGameProfile().getId());
+        return ROUTED.containsKey(player.getGameProfile().getId());
+    }
+
+    // The channel the player's chat is routed to, or null for public chat
+    public static ChannelConfig getRoutedChannel(ServerPlayer player) {
+        String channelId = ROUTED.get(player.getGameProfile().getId());
+        return channelId == null ? null : ModConfig.getChannel(channelId);
     }
 
     public static void sendStaffMessage(ServerPlayer sender, String message) {
+        sendStaffMessage(sender, ModConfig.getDefaultChannel(), message);
+    }
+
+    public static void sendStaffMessage(ServerPlayer sender, ChannelConfig channel, String message) {
         if (sender == null || sender.server == null) return;
 
-        String playerName = sender.getGameProfile().getName();
-        String formattedMessage = ModConfig.STAFF_MESSAGE_FORMAT
-                .replace("%player%", playerName)
-                .replace("%message%", message);
-        
-        Component comp = Component.literal(formattedMessage);
+        long received = System.nanoTime();
+        int recipients = deliver(sender.server, channel, prepareStaffMessage(channel, messageContext(sender, channel, message)));
+        StaffChatMetrics.recordFanOut(received, recipients);
+    }
+
+    // Formats a local message, publishes it to other servers and the webhook, keeps it for offline staff and builds the packets.
+    // Safe off the server thread; the context comes from messageContext on the server thread.
+    public static LocalizedPacket prepareStaffMessage(ChannelConfig channel, MessageContext context) {
+        publish(context.senderId(), context.player(), channel, context.message());
 
-        for (ServerPlayer p : sender.server.getPlayerList().getPlayers()) {
-            if (canReceiveStaffMessages(p)) {
-                p.sendSystemMessage(comp);
-            }
+        ConfigSnapshot config = ModConfig.current();
+        MessageTemplate template = config.template(channel);
+        return new LocalizedPacket(render(template, context, LocaleTable.DEFAULT, false), locale -> {
+            MessageTemplate localized = config.template(channel, locale);
+            return localized == template ? null : render(localized, context, locale, false);
+        }).withCompact(StaffChatPayload.of(context, ""));
+    }
+
+    // Alerts raised by the server itself (watchlist hits) take the same path as a staff message, sent by
+    // senderName with the nil uuid. text is what the journal, mailbox, bridge and webhook get; online staff
+    // get the packets. Safe off the server thread.
+    public static void sendAlert(MinecraftServer server, ChannelConfig channel, String senderName, String text, LocalizedPacket packets) {
+        publish(ALERT_SENDER_ID, senderName, channel, text);
+        server.execute(() -> deliver(server, channel, packets));
+    }
+
+    private static void publish(UUID senderId, String senderName, ChannelConfig channel, String message) {
+        StaffChatJournal.append(senderId, senderName, channel.id(), "", message);
+        StaffMailbox.record(channel.id(), senderName, message);
+        StaffChatBridge.publish(senderId, senderName, channel.id(), message);
+        WebhookRelay.publish(channel.id(), senderName, message);
+    }
+
+    // Server thread only, the player's level changes when they travel between dimensions
+    public static MessageContext messageContext(ServerPlayer sender, ChannelConfig channel, String message) {
+        ServerLevel level = sender.serverLevel();
+        String world = level == null ? "" : level.dimension().location().getPath();
+        return new MessageContext(sender.getGameProfile().getName(), sender.getGameProfile().getId(), channel.id(),
+                StaffChatBridge.serverId(), world, System.currentTimeMillis(), message);
+    }
+
+    public static Component formatStaffMessage(ChannelConfig channel, MessageContext context) {
+        return ModConfig.current().template(channel).render(context);
+    }
+
+    // Must be called on the server thread. Messages for channels this server doesn't have are dropped.
+    public static void receiveRemoteMessage(MinecraftServer server, BridgeMessage message) {
+        ChannelConfig channel = ModConfig.getChannel(message.channel());
+        if (channel == null) {
+            return;
         }
+
+        StaffChatJournal.append(message.senderId(), message.senderName(), channel.id(), message.origin(), message.text());
+        StaffMailbox.record(channel.id(), message.senderName(), message.text());
+        ConfigSnapshot config = ModConfig.current();
+        MessageContext context = remoteContext(message);
+        deliver(server, channel, new LocalizedPacket(render(config.bridgeTemplate, context, LocaleTable.DEFAULT, true), locale -> {
+            MessageTemplate localized = config.bridgeTemplate(locale);
+            return localized == config.bridgeTemplate ? null : render(localized, context, locale, true);
+        }).withCompact(StaffChatPayload.of(context, message.origin())));
     }
 
-    public static boolean canReceiveStaffMessages(ServerPlayer player) {
-        return hasPermission(player, ModConfig.PERM_RECEIVE);
+    private static Component render(MessageTemplate template, MessageContext context, String locale, boolean remote) {
+        MessageFormatEvent event = new MessageFormatEvent();
+        event.begin();
+        Component component = template.render(context);
+        event.end();
+        if (event.shouldCommit()) {
+            event.channel = context.channel();
+            event.locale = locale;
+            event.remote = remote;
+            event.commit();
+        }
+        return component;
     }
 
-    public static boolean hasPermission(ServerPlayer player, String permission) {
-        initLuckPerms();
-        if (luckPermsApi != null) {
-            try {
-                User user = luckPermsApi.getUserManager().getUser(player.getGameProfile().getId());
-                if (user != null && user.getCachedData().getPermissionData()
-                        .checkPermission(permission).asBoolean()) {
-                    return true;
-                }
-            } catch (Exception ignored) {
-                // Fallback to OP
+    private static MessageContext remoteContext(BridgeMessage message) {
+        return new MessageContext(message.senderName(), message.senderId(),
+                message.channel(), message.origin(), "", message.timestamp(), message.text());
+    }
+
+    // Build the system chat packet once and hand the same instance to every receiver's connection
+    public static void broadcast(MinecraftServer server, ChannelConfig channel, Component component) {
+        deliver(server, channel, LocalizedPacket.of(component));
+    }
+
+    // Must be called on the server thread. Returns the number of players the packet was sent to.
+    // Receivers sharing a locale share one packet instance; companion clients get the compact one.
+    public static int deliver(MinecraftServer server, ChannelConfig channel, LocalizedPacket packets) {
+        FanOutEvent event = new FanOutEvent();
+        event.begin();
+        ConfigSnapshot config = ModConfig.current();
+        LocaleTable locales = config.locales;
+        boolean companions = config.companionEnabled && !CompanionClients.isEmpty();
+        int[] recipients = new int[1];
+        StaffRoster.forEachReceiver(server, channel.id(), p -> {
+            // Same visibility rule as ServerPlayer#sendSystemMessage for non-overlay messages, HUD included
+            if (p.getChatVisibility() == ChatVisiblity.HIDDEN) {
+                return;
             }
+            Packet<?> compact = companions && CompanionClients.has(p) ? packets.compact() : null;
+            p.connection.send(compact != null ? compact : packets.packet(locales.localeOf(p)));
+            recipients[0]++;
+        });
+        event.end();
+        if (event.shouldCommit()) {
+            event.channel = channel.id();
+            event.recipients = recipients[0];
+            event.commit();
         }
-        return player.server != null && player.server.getPlayerList().isOp(player.getGameProfile());
+        return recipients[0];
+    }
+
+    public static boolean canReceive(ServerPlayer player, ChannelConfig channel) {
+        return hasPermission(player, channel.receivePermission());
     }
-}
 
+    public static boolean hasPermission(ServerPlayer player, String permission) {
+        return PermissionService.check(player, permission);
+    }
+}
@@ -0,0 +1,133 @@
+package io.github.evelynnlovesyou.evesstaffchat.manager;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ChannelConfig;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Channel membership of online players. Every online player gets a small slot number and each
+// channel keeps a bitset of the slots allowed to receive it. Membership only changes on join/leave,
+// permission updates, op/deop and reload, so sending touches only the channel's members.
+// Server thread only.
+public class StaffRoster {
+
+    private static final Map<UUID, Integer> SLOTS = new HashMap<>();
+    private static final BitSet USED_SLOTS = new BitSet();
+    private static final Map<String, BitSet> MEMBERS = new HashMap<>();
+    private static UUID[] slotOwners = new UUID[64];
+
+    // Utility class - prevent instantiation
+    private StaffRoster() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static void refresh(ServerPlayer player) {
+        int slot = slotOf(player.getGameProfile().getId());
+        for (ChannelConfig channel : ModConfig.current().channels) {
+            BitSet members = MEMBERS.computeIfAbsent(channel.id(), id -> new BitSet());
+            members.set(slot, StaffChatManager.canReceive(player, channel));
+        }
+    }
+
+    // Re-evaluate a single player by UUID, ignoring players that are not online
+    public static void refresh(MinecraftServer server, UUID playerId) {
+        ServerPlayer player = server.getPlayerList().getPlayer(playerId);
+        if (player != null) {
+            refresh(player);
+        } else {
+            remove(playerId);
+        }
+    }
+
+    public static void remove(UUID playerId) {
+        Integer slot = SLOTS.remove(playerId);
+        if (slot == null) {
+            return;
+        }
+        for (BitSet members : MEMBERS.values()) {
+            members.clear(slot);
+        }
+        USED_SLOTS.clear(slot);
+        slotOwners[slot] = null;
+    }
+
+    // Also picks up channels added or removed by a reload
+    public static void rebuild(MinecraftServer server) {
+        clear();
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            refresh(player);
+        }
+    }
+
+    public static void clear() {
+        SLOTS.clear();
+        USED_SLOTS.clear();
+        MEMBERS.clear();
+        Arrays.fill(slotOwners, null);
+    }
+
+    public static int size(String channelId) {
+        BitSet members = MEMBERS.get(channelId);
+        return members == null ? 0 : members.cardinality();
+    }
+
+    public static boolean isMember(String channelId, UUID playerId) {
+        BitSet members = MEMBERS.get(channelId);
+        Integer slot = SLOTS.get(playerId);
+        return members != null && slot != null && members.get(slot);
+    }
+
+    // Ids of the channels the player is currently allowed to receive
+    public static Set<String> channelsOf(UUID playerId) {
+        Integer slot = SLOTS.get(playerId);
+        if (slot == null) {
+            return Set.of();
+        }
+        Set<String> channels = new HashSet<>();
+        MEMBERS.forEach((channelId, members) -> {
+            if (members.get(slot)) {
+                channels.add(channelId);
+            }
+        });
+        return channels;
+    }
+
+    public static void forEachReceiver(MinecraftServer server, String channelId, Consumer<ServerPlayer> action) {
+        BitSet members = MEMBERS.get(channelId);
+        if (members == null) {
+            return;
+        }
+        for (int slot = members.nextSetBit(0); slot >= 0; slot = members.nextSetBit(slot + 1)) {
+            ServerPlayer player = server.getPlayerList().getPlayer(slotOwners[slot]);
+            if (player != null) {
+                action.accept(player);
+            }
+        }
+    }
+
+    // Reuses the lowest free slot so the bitsets stay as small as the online player count
+    private static int slotOf(UUID playerId) {
+        Integer existing = SLOTS.get(playerId);
+        if (existing != null) {
+            return existing;
+        }
+
+        int slot = USED_SLOTS.nextClearBit(0);
+        if (slot >= slotOwners.length) {
+            slotOwners = Arrays.copyOf(slotOwners, slotOwners.length * 2);
+        }
+        USED_SLOTS.set(slot);
+        slotOwners[slot] = playerId;
+        SLOTS.put(playerId, slot);
+        return slot;
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.evelynnlovesyou.evesstaffchat.manager;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Remembers which channel each player's chat is routed to across relogs and restarts.
+// File layout: int magic, int count, then count * (long msb, long lsb, short length, utf-8 channel id).
+public class ToggleStore {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final String FILE_NAME = "toggles.bin";
+    private static final int MAGIC = 0x45534354;
+    private static final long WRITE_DELAY_MILLIS = 1000;
+
+    private static final Map<UUID, String> PERSISTED = new ConcurrentHashMap<>();
+    private static final AtomicBoolean WRITE_SCHEDULED = new AtomicBoolean();
+    private static volatile boolean loaded;
+    private static ScheduledExecutorService writer;
+
+    // Utility class - prevent instantiation
+    private ToggleStore() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // Channel id the player's chat is routed to, or null
+    public static String getChannel(UUID playerId) {
+        ensureLoaded();
+        return PERSISTED.get(playerId);
+    }
+
+    // A null channel id clears the routing
+    public static void set(UUID playerId, String channelId) {
+        ensureLoaded();
+        String previous = channelId == null ? PERSISTED.remove(playerId) : PERSISTED.put(playerId, channelId);
+        if (!Objects.equals(previous, channelId)) {
+            scheduleWrite();
+        }
+    }
+
+    // Writes any pending change right away and stops the writer thread
+    public static synchronized void flush() {
+        if (writer != null) {
+            writer.shutdownNow();
+            writer = null;
+        }
+        if (WRITE_SCHEDULED.getAndSet(false)) {
+            write();
+        }
+    }
+
+    // First use happens on the first join, so server startup never reads the file
+    private static void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        synchronized (ToggleStore.class) {
+            if (loaded) {
+                return;
+            }
+            try {
+                Path file = ModConfig.getConfigFolder().resolve(FILE_NAME);
+                if (Files.exists(file)) {
+                    ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+                    int magic = buffer.remaining() < 8 ? 0 : buffer.getInt();
+                    if (magic != MAGIC) {
+                        LOGGER.warn("Ignoring unreadable {}", FILE_NAME);
+                    } else {
+                        int count = buffer.getInt();
+                        for (int i = 0; i < count && buffer.remaining() >= 16; i++) {
+                            UUID id = new UUID(buffer.getLong(), buffer.getLong());
+                            PERSISTED.put(id, readChannel(buffer));
+                        }
+                    }
+                }
+            } catch (IOException | BufferUnderflowException e) {
+                LOGGER.warn("Failed to load {}: {}", FILE_NAME, e.getMessage());
+            }
+            loaded = true;
+        }
+    }
+
+    // Coalesces bursts of toggles into a single snapshot write on the writer thread
+    private static synchronized void scheduleWrite() {
+        if (!WRITE_SCHEDULED.compareAndSet(false, true)) {
+            return;
+        }
+
+        if (writer == null) {
+            writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "eves-staff-chat-toggles");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        writer.schedule(() -> {
+            if (WRITE_SCHEDULED.getAndSet(false)) {
+                write();
+            }
+        }, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private static String readChannel(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static synchronized void write() {
+        List<Map.Entry<UUID, byte[]>> snapshot = new ArrayList<>(PERSISTED.size());
+        int size = 8;
+        for (Map.Entry<UUID, String> entry : PERSISTED.entrySet()) {
+            byte[] channel = entry.getValue().getBytes(StandardCharsets.UTF_8);
+            snapshot.add(Map.entry(entry.getKey(), channel));
+            size += 18 + channel.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC).putInt(snapshot.size());
+        for (Map.Entry<UUID, byte[]> entry : snapshot) {
+            UUID id = entry.getKey();
+            buffer.putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits());
+            buffer.putShort((short) entry.getValue().length).put(entry.getValue());
+        }
+
+        try {
+            Path folder = ModConfig.getConfigFolder();
+            Path temp = folder.resolve(FILE_NAME + ".tmp");
+            Files.write(temp, buffer.array());
+            Files.move(temp, folder.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.error("Failed to save {}", FILE_NAME, e);
+        }
+    }
+}
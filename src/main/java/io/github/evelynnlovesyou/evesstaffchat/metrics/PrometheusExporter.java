@@ -0,0 +1,144 @@
+package io.github.evelynnlovesyou.evesstaffchat.metrics;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Periodically writes metrics.prom in the Prometheus text format for the node exporter's
+// textfile collector, so the mod never has to open a network port.
+public class PrometheusExporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final String FILE_NAME = "metrics.prom";
+
+    private static ScheduledExecutorService executor;
+
+    // Utility class - prevent instantiation
+    private PrometheusExporter() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static synchronized void start() {
+        int interval = ModConfig.current().metricsExportSeconds;
+        if (interval <= 0 || executor != null) {
+            return;
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "eves-staff-chat-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(PrometheusExporter::export, interval, interval, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    public static synchronized void restart() {
+        stop();
+        start();
+    }
+
+    private static void export() {
+        try {
+            Path folder = ModConfig.getConfigFolder();
+            Path temp = folder.resolve(FILE_NAME + ".tmp");
+            Files.writeString(temp, render());
+            // The textfile collector must never see a half-written file
+            Files.move(temp, folder.resolve(FILE_NAME), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write {}: {}", FILE_NAME, e.getMessage());
+        }
+    }
+
+    public static String render() {
+        StringBuilder out = new StringBuilder(4096);
+
+        out.append("# HELP evesstaffchat_messages_total Staff chat messages sent, by path.\n");
+        out.append("# TYPE evesstaffchat_messages_total counter\n");
+        out.append("evesstaffchat_messages_total{source=\"command\"} ").append(StaffChatMetrics.COMMAND_MESSAGES.sum()).append('\n');
+        out.append("evesstaffchat_messages_total{source=\"toggled\"} ").append(StaffChatMetrics.TOGGLED_MESSAGES.sum()).append('\n');
+
+        out.append("# HELP evesstaffchat_rate_limited_total Staff chat messages rejected by the per-sender rate limit.\n");
+        out.append("# TYPE evesstaffchat_rate_limited_total counter\n");
+        out.append("evesstaffchat_rate_limited_total ").append(StaffChatMetrics.RATE_LIMITED.sum()).append('\n');
+
+        out.append("# HELP evesstaffchat_dispatch_dropped_total Staff chat messages dropped because the dispatch queue was full.\n");
+        out.append("# TYPE evesstaffchat_dispatch_dropped_total counter\n");
+        out.append("evesstaffchat_dispatch_dropped_total ").append(StaffChatMetrics.DISPATCH_DROPPED.sum()).append('\n');
+
+        out.append("# HELP evesstaffchat_watchlist_hits_total Public chat messages that matched the watchlist.\n");
+        out.append("# TYPE evesstaffchat_watchlist_hits_total counter\n");
+        out.append("evesstaffchat_watchlist_hits_total ").append(StaffChatMetrics.WATCHLIST_HITS.sum()).append('\n');
+
+        out.append("# HELP evesstaffchat_webhook_messages_total Staff chat messages relayed to the webhook, by outcome.\n");
+        out.append("# TYPE evesstaffchat_webhook_messages_total counter\n");
+        out.append("evesstaffchat_webhook_messages_total{result=\"sent\"} ").append(StaffChatMetrics.WEBHOOK_SENT.sum()).append('\n');
+        out.append("evesstaffchat_webhook_messages_total{result=\"dropped\"} ").append(StaffChatMetrics.WEBHOOK_DROPPED.sum()).append('\n');
+
+        out.append("# HELP evesstaffchat_permission_cache_total Permission checks by decision cache outcome.\n");
+        out.append("# TYPE evesstaffchat_permission_cache_total counter\n");
+        out.append("evesstaffchat_permission_cache_total{result=\"hit\"} ").append(StaffChatMetrics.PERMISSION_CACHE_HITS.sum()).append('\n');
+        out.append("evesstaffchat_permission_cache_total{result=\"miss\"} ").append(StaffChatMetrics.PERMISSION_CACHE_MISSES.sum()).append('\n');
+
+        histogram(out, "evesstaffchat_recipients", "Receivers per staff chat message.", "", StaffChatMetrics.RECIPIENTS, 1);
+        out.append("# HELP evesstaffchat_permission_check_seconds Permission check duration, by backend.\n");
+        out.append("# TYPE evesstaffchat_permission_check_seconds histogram\n");
+        buckets(out, "evesstaffchat_permission_check_seconds", "backend=\"luckperms\",", StaffChatMetrics.LUCKPERMS_CHECKS, 1e-9);
+        buckets(out, "evesstaffchat_permission_check_seconds", "backend=\"op\",", StaffChatMetrics.OP_CHECKS, 1e-9);
+        histogram(out, "evesstaffchat_fanout_latency_seconds", "Time from receiving a staff message to delivering it to every receiver.", "", StaffChatMetrics.FAN_OUT_LATENCY, 1e-9);
+
+        return out.toString();
+    }
+
+    private static void histogram(StringBuilder out, String name, String help, String labels, Log2Histogram histogram, double scale) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(" histogram\n");
+        buckets(out, name, labels, histogram, scale);
+    }
+
+    // Emits cumulative buckets up to the highest non-empty one, then +Inf, sum and count.
+    // Counts come from one bucket snapshot so +Inf always matches the last cumulative bucket.
+    private static void buckets(StringBuilder out, String name, String labels, Log2Histogram histogram, double scale) {
+        long[] snapshot = new long[Log2Histogram.BUCKETS];
+        int highest = 0;
+        for (int i = 0; i < Log2Histogram.BUCKETS; i++) {
+            snapshot[i] = histogram.bucketCount(i);
+            if (snapshot[i] > 0 && i < Log2Histogram.BUCKETS - 1) {
+                highest = i;
+            }
+        }
+
+        long cumulative = 0;
+        for (int i = 0; i <= highest; i++) {
+            cumulative += snapshot[i];
+            out.append(name).append("_bucket{").append(labels).append("le=\"")
+                    .append(String.format(Locale.ROOT, "%.9g", Log2Histogram.upperBound(i) * scale))
+                    .append("\"} ").append(cumulative).append('\n');
+        }
+        for (int i = highest + 1; i < Log2Histogram.BUCKETS; i++) {
+            cumulative += snapshot[i];
+        }
+
+        String plainLabels = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+        out.append(name).append("_bucket{").append(labels).append("le=\"+Inf\"} ").append(cumulative).append('\n');
+        out.append(name).append("_sum").append(plainLabels).append(' ')
+                .append(String.format(Locale.ROOT, "%.9g", histogram.sum() * scale)).append('\n');
+        out.append(name).append("_count").append(plainLabels).append(' ').append(cumulative).append('\n');
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.evelynnlovesyou.evesstaffchat.metrics;
+
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatDispatcher;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class StaffChatMetrics {
+
+    public static final LongAdder COMMAND_MESSAGES = new LongAdder();
+    public static final LongAdder TOGGLED_MESSAGES = new LongAdder();
+
+    // Messages dropped by the flood guard before reaching anyone
+    public static final LongAdder RATE_LIMITED = new LongAdder();
+
+    // Messages dropped because their dispatch lane was full
+    public static final LongAdder DISPATCH_DROPPED = new LongAdder();
+
+    // Public chat messages that matched the watchlist
+    public static final LongAdder WATCHLIST_HITS = new LongAdder();
+
+    // Messages posted to the webhook vs. dropped (queue overflow, rejected or out of retries)
+    public static final LongAdder WEBHOOK_SENT = new LongAdder();
+    public static final LongAdder WEBHOOK_DROPPED = new LongAdder();
+
+    // Receivers each message was delivered to
+    public static final Log2Histogram RECIPIENTS = new Log2Histogram();
+
+    // Permission check durations in nanoseconds, split by which backend answered
+    public static final Log2Histogram LUCKPERMS_CHECKS = new Log2Histogram();
+    public static final Log2Histogram OP_CHECKS = new Log2Histogram();
+
+    // Checks answered from the decision cache vs. passed on to the providers
+    public static final LongAdder PERMISSION_CACHE_HITS = new LongAdder();
+    public static final LongAdder PERMISSION_CACHE_MISSES = new LongAdder();
+
+    // Nanoseconds from a message being received to the packet being handed to every receiver
+    public static final Log2Histogram FAN_OUT_LATENCY = new Log2Histogram();
+
+    // Utility class - prevent instantiation
+    private StaffChatMetrics() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static void recordMessage(StaffChatDispatcher.Source source) {
+        if (source == StaffChatDispatcher.Source.COMMAND) {
+            COMMAND_MESSAGES.increment();
+        } else {
+            TOGGLED_MESSAGES.increment();
+        }
+    }
+
+    public static void recordFanOut(long receivedNanos, int recipients) {
+        FAN_OUT_LATENCY.record(System.nanoTime() - receivedNanos);
+        RECIPIENTS.record(recipients);
+    }
+}
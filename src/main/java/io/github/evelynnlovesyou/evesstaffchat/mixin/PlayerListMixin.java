@@ -0,0 +1,35 @@
+package io.github.evelynnlovesyou.evesstaffchat.mixin;
+
+import com.mojang.authlib.GameProfile;
+
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.players.PlayerList;
+
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffRoster;
+import io.github.evelynnlovesyou.evesstaffchat.permissions.PermissionService;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(PlayerList.class)
+public abstract class PlayerListMixin {
+
+    @Shadow
+    public abstract MinecraftServer getServer();
+
+    // OP status is the fallback receive permission, so drop cached decisions and re-check the roster when it changes
+    @Inject(method = "op", at = @At("TAIL"))
+    private void evesstaffchat$onOp(GameProfile profile, CallbackInfo ci) {
+        PermissionService.invalidate(profile.getId());
+        StaffRoster.refresh(getServer(), profile.getId());
+    }
+
+    @Inject(method = "deop", at = @At("TAIL"))
+    private void evesstaffchat$onDeop(GameProfile profile, CallbackInfo ci) {
+        PermissionService.invalidate(profile.getId());
+        StaffRoster.refresh(getServer(), profile.getId());
+    }
+}
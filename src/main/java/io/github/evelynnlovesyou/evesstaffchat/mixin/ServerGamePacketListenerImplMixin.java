@@ -0,0 +1,81 @@
+package io.github.evelynnlovesyou.evesstaffchat.mixin;
+
+import net.minecraft.network.chat.LastSeenMessages;
+import net.minecraft.network.chat.PlayerChatMessage;
+import net.minecraft.network.chat.SignedMessageChain;
+import net.minecraft.network.protocol.game.ServerboundChatPacket;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerGamePacketListenerImpl;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ChannelConfig;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatDispatcher;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import java.util.Optional;
+
+// Chat from players routed into a staff channel never reaches public chat, so it is taken out of
+// handleChat before the text filter, chat decorator and broadcast. The last-seen update is still
+// applied and the message still goes through vanilla's decoder, which checks the signature and
+// moves the signed chain on, so the player's next public message verifies as usual.
+@Mixin(ServerGamePacketListenerImpl.class)
+public abstract class ServerGamePacketListenerImplMixin {
+
+    @Shadow
+    public ServerPlayer player;
+
+    @Shadow
+    private static boolean isChatMessageIllegal(String message) {
+        throw new AssertionError();
+    }
+
+    @Shadow
+    protected abstract Optional<LastSeenMessages> tryHandleChat(LastSeenMessages.Update update);
+
+    @Shadow
+    protected abstract PlayerChatMessage getSignedMessage(ServerboundChatPacket packet, LastSeenMessages lastSeenMessages)
+            throws SignedMessageChain.DecodeException;
+
+    @Shadow
+    protected abstract void handleMessageDecodeFailure(SignedMessageChain.DecodeException exception);
+
+    // Runs on the network thread, like the rest of handleChat up to the server.execute
+    @Inject(method = "handleChat", at = @At("HEAD"), cancellable = true)
+    private void evesstaffchat$routeStaffChat(ServerboundChatPacket packet, CallbackInfo ci) {
+        if (!ModConfig.current().earlyChatRouting || !StaffChatManager.isPlayerToggled(player)) {
+            return;
+        }
+        ChannelConfig channel = StaffChatManager.getRoutedChannel(player);
+        // Illegal characters are left to vanilla, which disconnects
+        if (channel == null || isChatMessageIllegal(packet.message())) {
+            return;
+        }
+
+        ci.cancel();
+        Optional<LastSeenMessages> lastSeen = tryHandleChat(packet.lastSeenMessages());
+        if (lastSeen.isEmpty()) {
+            return;
+        }
+
+        ServerPlayer sender = player;
+        sender.server.execute(() -> {
+            // Server thread, in packet order with vanilla's own decodes. A bad signature or a broken
+            // chain is reported and handled (usually a disconnect) exactly like for public chat.
+            try {
+                getSignedMessage(packet, lastSeen.get());
+            } catch (SignedMessageChain.DecodeException e) {
+                handleMessageDecodeFailure(e);
+                return;
+            }
+            if (!packet.message().isEmpty()) {
+                StaffChatDispatcher.dispatch(sender, channel, packet.message(), StaffChatDispatcher.Source.TOGGLED);
+            }
+        });
+    }
+}
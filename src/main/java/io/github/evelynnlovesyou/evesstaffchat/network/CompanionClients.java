@@ -0,0 +1,63 @@
+package io.github.evelynnlovesyou.evesstaffchat.network;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
+import net.fabricmc.fabric.api.networking.v1.S2CPlayChannelEvents;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Players whose client runs the companion mod. The client registers the staff message channel
+// while connecting, so a join (or a late channel registration) is enough to know who has it.
+// Everyone else keeps getting the formatted system messages.
+public class CompanionClients {
+
+    private static final Set<UUID> CONNECTED = ConcurrentHashMap.newKeySet();
+
+    // Utility class - prevent instantiation
+    private CompanionClients() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // Runs on both sides, the payload type has to be known to the client as well
+    public static void register() {
+        PayloadTypeRegistry.playS2C().register(StaffChatPayload.TYPE, StaffChatPayload.CODEC);
+        S2CPlayChannelEvents.REGISTER.register((handler, sender, server, channels) -> refresh(handler.player));
+        S2CPlayChannelEvents.UNREGISTER.register((handler, sender, server, channels) -> refresh(handler.player));
+    }
+
+    public static void refresh(ServerPlayer player) {
+        if (ModConfig.current().companionEnabled && ServerPlayNetworking.canSend(player, StaffChatPayload.TYPE)) {
+            CONNECTED.add(player.getGameProfile().getId());
+        } else {
+            CONNECTED.remove(player.getGameProfile().getId());
+        }
+    }
+
+    // After a reload, companion_enabled may have changed
+    public static void rebuild(MinecraftServer server) {
+        for (ServerPlayer player : server.getPlayerList().getPlayers()) {
+            refresh(player);
+        }
+    }
+
+    public static void remove(UUID playerId) {
+        CONNECTED.remove(playerId);
+    }
+
+    public static boolean isEmpty() {
+        return CONNECTED.isEmpty();
+    }
+
+    public static boolean has(ServerPlayer player) {
+        return CONNECTED.contains(player.getGameProfile().getId());
+    }
+
+    public static void clear() {
+        CONNECTED.clear();
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.evelynnlovesyou.evesstaffchat.network;
+
+import io.github.evelynnlovesyou.evesstaffchat.EvesStaffChat;
+import io.github.evelynnlovesyou.evesstaffchat.format.MessageContext;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+
+import java.util.UUID;
+
+// A staff message for clients running the companion mod: the raw fields instead of a formatted
+// Component, the client does its own styling. origin is empty for messages from this server.
+public record StaffChatPayload(UUID senderId, String senderName, String channel, String origin, long timestamp, String text)
+        implements CustomPacketPayload {
+
+    public static final Type<StaffChatPayload> TYPE = new Type<>(ResourceLocation.fromNamespaceAndPath(EvesStaffChat.MOD_ID, "staff_message"));
+    public static final StreamCodec<FriendlyByteBuf, StaffChatPayload> CODEC = CustomPacketPayload.codec(StaffChatPayload::write, StaffChatPayload::new);
+
+    private static final UUID NO_SENDER = new UUID(0L, 0L);
+
+    private StaffChatPayload(FriendlyByteBuf buf) {
+        this(buf.readUUID(), buf.readUtf(), buf.readUtf(), buf.readUtf(), buf.readVarLong(), buf.readUtf());
+    }
+
+    public static StaffChatPayload of(MessageContext context, String origin) {
+        return new StaffChatPayload(context.senderId() != null ? context.senderId() : NO_SENDER, context.player(),
+                context.channel(), origin, context.timestamp(), context.message());
+    }
+
+    private void write(FriendlyByteBuf buf) {
+        buf.writeUUID(senderId);
+        buf.writeUtf(senderName);
+        buf.writeUtf(channel);
+        buf.writeUtf(origin);
+        buf.writeVarLong(timestamp);
+        buf.writeUtf(text);
+    }
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
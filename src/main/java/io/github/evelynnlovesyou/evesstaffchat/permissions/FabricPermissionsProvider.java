@@ -0,0 +1,20 @@
+package io.github.evelynnlovesyou.evesstaffchat.permissions;
+
+import me.lucko.fabric.api.permissions.v0.Permissions;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.server.level.ServerPlayer;
+
+// fabric-permissions-api, for permission mods other than LuckPerms.
+// Only loaded when that mod is present.
+public class FabricPermissionsProvider implements PermissionProvider {
+
+    @Override
+    public String name() {
+        return "fabric";
+    }
+
+    @Override
+    public TriState check(ServerPlayer player, String node) {
+        return Permissions.getPermissionValue(player, node);
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.evelynnlovesyou.evesstaffchat.permissions;
+
+import io.github.evelynnlovesyou.evesstaffchat.metrics.StaffChatMetrics;
+import net.fabricmc.fabric.api.util.TriState;
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
+import net.luckperms.api.model.user.User;
+import net.minecraft.server.level.ServerPlayer;
+
+// Only loaded when the luckperms mod is present, so the LuckPerms classes are always resolvable here
+public class LuckPermsPermissionProvider implements PermissionProvider {
+
+    private final LuckPerms api;
+    private EventSubscription<UserDataRecalculateEvent> subscription;
+
+    public LuckPermsPermissionProvider(LuckPerms api) {
+        this.api = api;
+    }
+
+    // Also forwards permission changes so cached decisions and the roster follow LuckPerms edits
+    static LuckPermsPermissionProvider connect() {
+        LuckPermsPermissionProvider provider = new LuckPermsPermissionProvider(LuckPermsProvider.get());
+        provider.subscription = provider.api.getEventBus().subscribe(UserDataRecalculateEvent.class,
+                event -> PermissionService.changed(event.getUser().getUniqueId()));
+        return provider;
+    }
+
+    @Override
+    public String name() {
+        return "luckperms";
+    }
+
+    @Override
+    public TriState check(ServerPlayer player, String node) {
+        long start = System.nanoTime();
+        try {
+            User user = api.getUserManager().getUser(player.getGameProfile().getId());
+            if (user == null) {
+                return TriState.DEFAULT;
+            }
+            // Only a grant is final. A LuckPerms denial (often a negated node inherited from default)
+            // goes on to the next provider, so ops keep staff chat as they always have.
+            return user.getCachedData().getPermissionData().checkPermission(node).asBoolean() ? TriState.TRUE : TriState.DEFAULT;
+        } finally {
+            StaffChatMetrics.LUCKPERMS_CHECKS.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+    }
+}
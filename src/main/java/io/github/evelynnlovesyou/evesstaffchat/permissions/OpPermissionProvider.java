@@ -0,0 +1,22 @@
+package io.github.evelynnlovesyou.evesstaffchat.permissions;
+
+import io.github.evelynnlovesyou.evesstaffchat.metrics.StaffChatMetrics;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.server.level.ServerPlayer;
+
+// Vanilla ops get every node; everyone else is left to the next provider
+public class OpPermissionProvider implements PermissionProvider {
+
+    @Override
+    public String name() {
+        return "op";
+    }
+
+    @Override
+    public TriState check(ServerPlayer player, String node) {
+        long start = System.nanoTime();
+        boolean op = player.server != null && player.server.getPlayerList().isOp(player.getGameProfile());
+        StaffChatMetrics.OP_CHECKS.record(System.nanoTime() - start);
+        return op ? TriState.TRUE : TriState.DEFAULT;
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.evelynnlovesyou.evesstaffchat.permissions;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.server.level.ServerPlayer;
+
+// A source of permission decisions. Providers are asked in the order of permission_providers
+// and the first TRUE or FALSE wins; DEFAULT passes the question on to the next one. LuckPerms
+// never answers FALSE, so its denials still leave ops their access.
+public interface PermissionProvider {
+
+    String name();
+
+    TriState check(ServerPlayer player, String node);
+
+    // Called when the provider is replaced on reload or shutdown
+    default void close() {
+    }
+}
@@ -0,0 +1,185 @@
+package io.github.evelynnlovesyou.evesstaffchat.permissions;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ConfigSnapshot;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.jfr.PermissionCheckEvent;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffRoster;
+import io.github.evelynnlovesyou.evesstaffchat.metrics.StaffChatMetrics;
+import net.fabricmc.fabric.api.util.TriState;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Asks the configured providers in order and caches each (player, node) decision for
+// permission_cache_millis. Providers that are missing are skipped once at startup instead of
+// being retried on every check; entries are dropped when a provider reports a change, on op/deop,
+// on disconnect and on reload.
+public class PermissionService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final PermissionProvider[] OP_ONLY = {new OpPermissionProvider()};
+
+    private record Decision(boolean allowed, long expiresAt) {
+    }
+
+    private static final Map<UUID, Map<String, Decision>> CACHE = new ConcurrentHashMap<>();
+    private static volatile PermissionProvider[] providers = OP_ONLY;
+    private static volatile MinecraftServer server;
+
+    // Utility class - prevent instantiation
+    private PermissionService() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static synchronized void start(MinecraftServer minecraftServer) {
+        server = minecraftServer;
+        List<PermissionProvider> created = new ArrayList<>();
+        for (String name : ModConfig.current().permissionProviders) {
+            PermissionProvider provider = create(name.toLowerCase(Locale.ROOT));
+            if (provider != null) {
+                created.add(provider);
+            }
+        }
+        if (created.isEmpty()) {
+            LOGGER.warn("No permission providers available - falling back to OP only");
+            created.add(new OpPermissionProvider());
+        }
+        useProviders(created.toArray(new PermissionProvider[0]));
+        LOGGER.info("Permission providers: {}", created.stream().map(PermissionProvider::name).toList());
+    }
+
+    public static synchronized void stop() {
+        useProviders(OP_ONLY);
+        server = null;
+    }
+
+    public static synchronized void restart(MinecraftServer minecraftServer) {
+        start(minecraftServer);
+    }
+
+    // Replaces the provider chain, closing the previous providers
+    public static synchronized void useProviders(PermissionProvider... replacement) {
+        PermissionProvider[] previous = providers;
+        providers = replacement;
+        CACHE.clear();
+        for (PermissionProvider provider : previous) {
+            if (!List.of(replacement).contains(provider)) {
+                provider.close();
+            }
+        }
+    }
+
+    public static boolean check(ServerPlayer player, String node) {
+        PermissionCheckEvent event = new PermissionCheckEvent();
+        event.begin();
+        long ttlNanos = ModConfig.current().permissionCacheMillis * 1_000_000L;
+        if (ttlNanos <= 0) {
+            return record(event, player, node, false, evaluate(player, node, event));
+        }
+
+        UUID id = player.getGameProfile().getId();
+        Map<String, Decision> decisions = CACHE.computeIfAbsent(id, key -> new ConcurrentHashMap<>());
+        long now = System.nanoTime();
+        Decision cached = decisions.get(node);
+        if (cached != null && cached.expiresAt() - now > 0) {
+            StaffChatMetrics.PERMISSION_CACHE_HITS.increment();
+            return record(event, player, node, true, cached.allowed());
+        }
+
+        StaffChatMetrics.PERMISSION_CACHE_MISSES.increment();
+        boolean allowed = evaluate(player, node, event);
+        decisions.put(node, new Decision(allowed, now + ttlNanos));
+        return record(event, player, node, false, allowed);
+    }
+
+    // Asks the providers directly, bypassing the cache
+    public static boolean evaluate(ServerPlayer player, String node) {
+        return evaluate(player, node, null);
+    }
+
+    private static boolean evaluate(ServerPlayer player, String node, PermissionCheckEvent event) {
+        for (PermissionProvider provider : providers) {
+            try {
+                TriState result = provider.check(player, node);
+                if (result != TriState.DEFAULT) {
+                    if (event != null) {
+                        event.provider = provider.name();
+                    }
+                    return result == TriState.TRUE;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.debug("Permission provider {} failed for {}: {}", provider.name(), node, e.getMessage());
+            }
+        }
+        return false;
+    }
+
+    private static boolean record(PermissionCheckEvent event, ServerPlayer player, String node, boolean cacheHit, boolean allowed) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.player = player.getGameProfile().getName();
+            event.node = node;
+            event.cacheHit = cacheHit;
+            event.allowed = allowed;
+            if (event.provider == null) {
+                event.provider = "";
+            }
+            event.commit();
+        }
+        return allowed;
+    }
+
+    public static void invalidate(UUID playerId) {
+        CACHE.remove(playerId);
+    }
+
+    public static void invalidateAll() {
+        CACHE.clear();
+    }
+
+    // For providers reporting a permission change, from any thread
+    public static void changed(UUID playerId) {
+        invalidate(playerId);
+        MinecraftServer current = server;
+        if (current != null) {
+            current.execute(() -> StaffRoster.refresh(current, playerId));
+        }
+    }
+
+    private static PermissionProvider create(String name) {
+        try {
+            switch (name) {
+                case "luckperms":
+                    if (!FabricLoader.getInstance().isModLoaded("luckperms")) {
+                        return null;
+                    }
+                    return LuckPermsPermissionProvider.connect();
+                case "fabric":
+                    if (!FabricLoader.getInstance().isModLoaded("fabric-permissions-api-v0")) {
+                        return null;
+                    }
+                    return new FabricPermissionsProvider();
+                case "file":
+                    return StaticFilePermissionProvider.load();
+                case "op":
+                    return new OpPermissionProvider();
+                default:
+                    LOGGER.warn("Unknown permission provider '{}' in permission_providers", name);
+                    return null;
+            }
+        } catch (Exception | LinkageError e) {
+            LOGGER.warn("Permission provider {} is unavailable: {}", name, e.getMessage());
+            return null;
+        }
+    }
+}
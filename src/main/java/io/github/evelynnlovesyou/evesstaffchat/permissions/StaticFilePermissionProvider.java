@@ -0,0 +1,96 @@
+package io.github.evelynnlovesyou.evesstaffchat.permissions;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Nodes per player from permissions.json, for servers without a permission mod.
+// Players are keyed by UUID or name; "evesstaffchat.*" grants a whole prefix and "-node" denies.
+public class StaticFilePermissionProvider implements PermissionProvider {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final String FILE_NAME = "permissions.json";
+    private static final String DEFAULT_PATH = "/config/permissions.json";
+
+    private final Map<String, List<String>> nodes;
+
+    private StaticFilePermissionProvider(Map<String, List<String>> nodes) {
+        this.nodes = nodes;
+    }
+
+    static StaticFilePermissionProvider load() throws IOException {
+        Path file = ModConfig.getConfigFolder().resolve(FILE_NAME);
+        if (!Files.exists(file)) {
+            try (InputStream is = StaticFilePermissionProvider.class.getResourceAsStream(DEFAULT_PATH)) {
+                if (is != null) {
+                    Files.copy(is, file);
+                    LOGGER.info("Copied default {} to {}", FILE_NAME, file);
+                }
+            }
+        }
+
+        Map<String, List<String>> nodes = new HashMap<>();
+        if (Files.exists(file)) {
+            Type type = new TypeToken<Map<String, Map<String, List<String>>>>() {}.getType();
+            try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                Map<String, Map<String, List<String>>> json = new Gson().fromJson(reader, type);
+                if (json != null && json.get("players") != null) {
+                    json.get("players").forEach((player, list) -> nodes.put(player.toLowerCase(Locale.ROOT), List.copyOf(list)));
+                }
+            }
+        }
+        return new StaticFilePermissionProvider(nodes);
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public TriState check(ServerPlayer player, String node) {
+        List<String> granted = nodes.get(player.getGameProfile().getId().toString());
+        if (granted == null) {
+            granted = nodes.get(player.getGameProfile().getName().toLowerCase(Locale.ROOT));
+        }
+        if (granted == null) {
+            return TriState.DEFAULT;
+        }
+
+        // A matching denial wins over any grant
+        TriState result = TriState.DEFAULT;
+        for (String entry : granted) {
+            boolean negated = entry.startsWith("-");
+            if (matches(negated ? entry.substring(1) : entry, node)) {
+                if (negated) {
+                    return TriState.FALSE;
+                }
+                result = TriState.TRUE;
+            }
+        }
+        return result;
+    }
+
+    private static boolean matches(String pattern, String node) {
+        if (pattern.equals("*") || pattern.equals(node)) {
+            return true;
+        }
+        return pattern.endsWith(".*") && node.startsWith(pattern.substring(0, pattern.length() - 1));
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.evelynnlovesyou.evesstaffchat.pipeline;
+
+import io.github.evelynnlovesyou.evesstaffchat.watchlist.Watchlist;
+import net.minecraft.network.chat.PlayerChatMessage;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Ordered stages that every public chat message passes through. The stage array is built once
+// at startup and on reload, then only read. A message that no stage applies to costs one
+// appliesTo call per stage and never has its text extracted.
+public class ChatPipeline {
+
+    private static final ChatStage[] NO_STAGES = new ChatStage[0];
+
+    private static volatile ChatStage[] stages = NO_STAGES;
+
+    // Utility class - prevent instantiation
+    private ChatPipeline() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static synchronized void rebuild() {
+        List<ChatStage> built = new ArrayList<>();
+        built.add(new RoutingStage());
+        // Only present while there are terms, so an empty watchlist costs nothing
+        if (Watchlist.isActive()) {
+            built.add(new WatchlistStage());
+        }
+        stages = built.toArray(NO_STAGES);
+    }
+
+    public static synchronized void clear() {
+        stages = NO_STAGES;
+    }
+
+    // Returns false if the message must not reach public chat
+    public static boolean allow(PlayerChatMessage message, ServerPlayer sender) {
+        ChatStage[] current = stages;
+        if (sender == null || current.length == 0) {
+            return true;
+        }
+
+        String text = null;
+        for (ChatStage stage : current) {
+            if (!stage.appliesTo(sender)) {
+                continue;
+            }
+            if (text == null) {
+                text = message.signedContent();
+            }
+            if (!stage.handle(sender, text)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
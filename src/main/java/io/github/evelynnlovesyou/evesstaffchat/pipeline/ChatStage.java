@@ -0,0 +1,13 @@
+package io.github.evelynnlovesyou.evesstaffchat.pipeline;
+
+import net.minecraft.server.level.ServerPlayer;
+
+// One step of the public chat pipeline
+public interface ChatStage {
+
+    // Runs for every public chat message, so it must be cheap and must not look at the text
+    boolean appliesTo(ServerPlayer sender);
+
+    // Returns false to keep the message out of public chat; later stages are skipped then
+    boolean handle(ServerPlayer sender, String message);
+}
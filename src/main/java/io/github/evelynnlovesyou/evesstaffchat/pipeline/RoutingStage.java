@@ -0,0 +1,27 @@
+package io.github.evelynnlovesyou.evesstaffchat.pipeline;
+
+import io.github.evelynnlovesyou.evesstaffchat.config.ChannelConfig;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatDispatcher;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import net.minecraft.server.level.ServerPlayer;
+
+// Sends chat from toggled players to their staff channel instead of public chat
+class RoutingStage implements ChatStage {
+
+    @Override
+    public boolean appliesTo(ServerPlayer sender) {
+        return StaffChatManager.isPlayerToggled(sender);
+    }
+
+    @Override
+    public boolean handle(ServerPlayer sender, String message) {
+        ChannelConfig channel = StaffChatManager.getRoutedChannel(sender);
+        if (channel == null) {
+            return true;
+        }
+        if (!message.isEmpty()) {
+            StaffChatDispatcher.dispatch(sender, channel, message, StaffChatDispatcher.Source.TOGGLED);
+        }
+        return false;
+    }
+}
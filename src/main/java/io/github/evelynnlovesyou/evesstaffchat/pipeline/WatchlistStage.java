@@ -0,0 +1,19 @@
+package io.github.evelynnlovesyou.evesstaffchat.pipeline;
+
+import io.github.evelynnlovesyou.evesstaffchat.watchlist.Watchlist;
+import net.minecraft.server.level.ServerPlayer;
+
+// Alerts staff about watched terms in public chat; never blocks the message
+class WatchlistStage implements ChatStage {
+
+    @Override
+    public boolean appliesTo(ServerPlayer sender) {
+        return true;
+    }
+
+    @Override
+    public boolean handle(ServerPlayer sender, String message) {
+        Watchlist.check(sender, message);
+        return true;
+    }
+}
@@ -0,0 +1,183 @@
+package io.github.evelynnlovesyou.evesstaffchat.watchlist;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.TreeMap;
+
+// Aho-Corasick automaton over normalized chars. Finds every occurrence of every term in one
+// left-to-right pass over the text, so the cost depends on the message length, not on how many
+// terms are watched. Immutable once built, safe to share between threads.
+public final class KeywordAutomaton {
+
+    public interface MatchListener {
+        // start inclusive, end exclusive, in the original text
+        void onMatch(int start, int end);
+    }
+
+    // Node n's edges are edgeChars/edgeTargets[edgeStart[n] .. edgeStart[n + 1]), sorted by char
+    private final int[] edgeStart;
+    private final char[] edgeChars;
+    private final int[] edgeTargets;
+    private final int[] fail;
+    // Length of the term ending at a node, 0 if none ends there
+    private final int[] termLength;
+    // Nearest node on the fail chain where a term ends, 0 if none
+    private final int[] outputLink;
+
+    private KeywordAutomaton(int[] edgeStart, char[] edgeChars, int[] edgeTargets, int[] fail, int[] termLength, int[] outputLink) {
+        this.edgeStart = edgeStart;
+        this.edgeChars = edgeChars;
+        this.edgeTargets = edgeTargets;
+        this.fail = fail;
+        this.termLength = termLength;
+        this.outputLink = outputLink;
+    }
+
+    public static KeywordAutomaton compile(List<String> terms) {
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        children.add(new TreeMap<>());
+        lengths.add(0);
+
+        for (String term : terms) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            int node = 0;
+            for (int i = 0; i < term.length(); i++) {
+                char c = normalize(term.charAt(i));
+                Integer next = children.get(node).get(c);
+                if (next == null) {
+                    next = children.size();
+                    children.add(new TreeMap<>());
+                    lengths.add(0);
+                    children.get(node).put(c, next);
+                }
+                node = next;
+            }
+            lengths.set(node, term.length());
+        }
+
+        int nodes = children.size();
+        int[] edgeStart = new int[nodes + 1];
+        for (int n = 0; n < nodes; n++) {
+            edgeStart[n + 1] = edgeStart[n] + children.get(n).size();
+        }
+        char[] edgeChars = new char[edgeStart[nodes]];
+        int[] edgeTargets = new int[edgeStart[nodes]];
+        for (int n = 0; n < nodes; n++) {
+            int e = edgeStart[n];
+            for (var edge : children.get(n).entrySet()) {
+                edgeChars[e] = edge.getKey();
+                edgeTargets[e] = edge.getValue();
+                e++;
+            }
+        }
+
+        int[] termLength = new int[nodes];
+        for (int n = 0; n < nodes; n++) {
+            termLength[n] = lengths.get(n);
+        }
+
+        // Breadth-first so every node's fail target is finished before the node itself
+        int[] fail = new int[nodes];
+        int[] outputLink = new int[nodes];
+        KeywordAutomaton automaton = new KeywordAutomaton(edgeStart, edgeChars, edgeTargets, fail, termLength, outputLink);
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int e = edgeStart[0]; e < edgeStart[1]; e++) {
+            queue.add(edgeTargets[e]);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int e = edgeStart[node]; e < edgeStart[node + 1]; e++) {
+                int child = edgeTargets[e];
+                int target = automaton.step(fail[node], edgeChars[e]);
+                fail[child] = target == child ? 0 : target;
+                outputLink[child] = termLength[fail[child]] > 0 ? fail[child] : outputLink[fail[child]];
+                queue.add(child);
+            }
+        }
+        return automaton;
+    }
+
+    public boolean isEmpty() {
+        return edgeChars.length == 0;
+    }
+
+    public void scan(CharSequence text, MatchListener listener) {
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = step(state, normalize(text.charAt(i)));
+            int node = termLength[state] > 0 ? state : outputLink[state];
+            while (node != 0) {
+                listener.onMatch(i + 1 - termLength[node], i + 1);
+                node = outputLink[node];
+            }
+        }
+    }
+
+    // Marks the chars of the text covered by a match, or returns null if nothing matched. With wholeWords
+    // a match only counts when no letter or digit touches it on either side.
+    public boolean[] matchedChars(String text, boolean wholeWords) {
+        boolean[] hits = new boolean[text.length()];
+        boolean[] found = new boolean[1];
+        scan(text, (start, end) -> {
+            if (wholeWords && !(isBoundary(text, start - 1) && isBoundary(text, end))) {
+                return;
+            }
+            for (int i = start; i < end; i++) {
+                hits[i] = true;
+            }
+            found[0] = true;
+        });
+        return found[0] ? hits : null;
+    }
+
+    private static boolean isBoundary(String text, int index) {
+        return index < 0 || index >= text.length() || !Character.isLetterOrDigit(text.charAt(index));
+    }
+
+    // Follows fail links until some node has an edge for c, ending at the root if none does
+    private int step(int state, char c) {
+        while (true) {
+            int edge = Arrays.binarySearch(edgeChars, edgeStart[state], edgeStart[state + 1], c);
+            if (edge >= 0) {
+                return edgeTargets[edge];
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = fail[state];
+        }
+    }
+
+    // Case folding plus the usual leetspeak substitutions, always one char for one char
+    // so match positions line up with the original message
+    static char normalize(char c) {
+        switch (c) {
+            case '0':
+                return 'o';
+            case '1':
+            case '!':
+            case '|':
+                return 'i';
+            case '3':
+                return 'e';
+            case '4':
+            case '@':
+                return 'a';
+            case '5':
+            case '$':
+                return 's';
+            case '7':
+                return 't';
+            case '8':
+                return 'b';
+            default:
+                return Character.toLowerCase(c);
+        }
+    }
+}
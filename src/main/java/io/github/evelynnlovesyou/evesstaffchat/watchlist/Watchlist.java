@@ -0,0 +1,139 @@
+package io.github.evelynnlovesyou.evesstaffchat.watchlist;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import io.github.evelynnlovesyou.evesstaffchat.config.ChannelConfig;
+import io.github.evelynnlovesyou.evesstaffchat.config.ConfigSnapshot;
+import io.github.evelynnlovesyou.evesstaffchat.config.LocaleTable;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.manager.LocalizedPacket;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import io.github.evelynnlovesyou.evesstaffchat.metrics.StaffChatMetrics;
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Terms from watchlist.json that get public chat messages forwarded to a staff channel.
+// Loading compiles a new automaton and swaps it in, so scans never see a half-built list.
+public class Watchlist {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final Gson GSON = new GsonBuilder().create();
+    private static final String FILE_NAME = "watchlist.json";
+    private static final String DEFAULT_PATH = "/config/watchlist.json";
+    // Alerts are journaled, bridged and posted to the webhook under this sender name
+    private static final String ALERT_SENDER = "Watchlist";
+
+    private record Compiled(KeywordAutomaton automaton, String channel, boolean wholeWords) {
+    }
+
+    private static volatile Compiled compiled;
+
+    // Utility class - prevent instantiation
+    private Watchlist() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    // Reads and compiles watchlist.json. Any thread; keeps the previous list if the file is broken.
+    public static void load() {
+        try {
+            Path file = ModConfig.getConfigFolder().resolve(FILE_NAME);
+            if (!Files.exists(file)) {
+                try (InputStream is = Watchlist.class.getResourceAsStream(DEFAULT_PATH)) {
+                    if (is != null) {
+                        Files.copy(is, file);
+                        LOGGER.info("Copied default {} to {}", FILE_NAME, file);
+                    }
+                }
+            }
+            if (!Files.exists(file)) {
+                compiled = null;
+                return;
+            }
+
+            JsonObject json;
+            try (var reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                json = GSON.fromJson(reader, JsonObject.class);
+            }
+
+            List<String> terms = new ArrayList<>();
+            if (json != null && json.has("terms") && json.get("terms").isJsonArray()) {
+                json.getAsJsonArray("terms").forEach(term -> {
+                    String value = term.getAsString().trim();
+                    if (!value.isEmpty()) {
+                        terms.add(value);
+                    }
+                });
+            }
+            String channel = json != null && json.has("channel") ? json.get("channel").getAsString() : "";
+            boolean wholeWords = json == null || !json.has("whole_words") || json.get("whole_words").getAsBoolean();
+
+            KeywordAutomaton automaton = KeywordAutomaton.compile(terms);
+            compiled = automaton.isEmpty() ? null : new Compiled(automaton, channel, wholeWords);
+            LOGGER.info("Loaded {} watchlist term(s)", terms.size());
+        } catch (IOException | RuntimeException e) {
+            LOGGER.error("Failed to load {}, keeping the previous watchlist: {}", FILE_NAME, e.getMessage());
+        }
+    }
+
+    public static boolean isActive() {
+        return compiled != null;
+    }
+
+    // Scans one public chat message and alerts staff if it contains a watched term
+    public static void check(ServerPlayer sender, String message) {
+        Compiled current = compiled;
+        if (current == null) {
+            return;
+        }
+
+        boolean[] hits = current.automaton().matchedChars(message, current.wholeWords());
+        if (hits == null) {
+            return;
+        }
+
+        StaffChatMetrics.WATCHLIST_HITS.increment();
+        ChannelConfig channel = ModConfig.getChannel(current.channel());
+        ChannelConfig target = channel != null ? channel : ModConfig.getDefaultChannel();
+        ConfigSnapshot config = ModConfig.current();
+        String playerName = sender.getGameProfile().getName();
+        LocalizedPacket alert = new LocalizedPacket(formatAlert(config.locales.get(LocaleTable.DEFAULT, "watchlist_alert"), playerName, message, hits), locale -> {
+            String format = config.locales.override(locale, "watchlist_alert");
+            return format == null ? null : formatAlert(format, playerName, message, hits);
+        });
+        StaffChatManager.sendAlert(sender.server, target, ALERT_SENDER, playerName + ": " + message, alert);
+    }
+
+    // watchlist_alert with %message% replaced by the message, matched parts highlighted
+    private static Component formatAlert(String alertFormat, String playerName, String message, boolean[] hits) {
+        String format = alertFormat.replace("%player%", playerName);
+        int split = format.indexOf("%message%");
+        if (split < 0) {
+            return Component.literal(format);
+        }
+
+        MutableComponent result = Component.literal(format.substring(0, split));
+        int runStart = 0;
+        for (int i = 1; i <= message.length(); i++) {
+            if (i == message.length() || hits[i] != hits[runStart]) {
+                MutableComponent run = Component.literal(message.substring(runStart, i));
+                result.append(hits[runStart] ? run.withStyle(ChatFormatting.RED, ChatFormatting.UNDERLINE) : run);
+                runStart = i;
+            }
+        }
+        return result.append(format.substring(split + "%message%".length()));
+    }
+}
@@ -0,0 +1,5 @@
+package io.github.evelynnlovesyou.evesstaffchat.webhook;
+
+// The only thing allocated per relayed message. Formatting happens on the webhook thread.
+public record WebhookMessage(String channel, String senderName, String text) {
+}
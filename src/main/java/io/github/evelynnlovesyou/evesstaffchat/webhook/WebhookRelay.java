@@ -0,0 +1,267 @@
+package io.github.evelynnlovesyou.evesstaffchat.webhook;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import io.github.evelynnlovesyou.evesstaffchat.config.ConfigSnapshot;
+import io.github.evelynnlovesyou.evesstaffchat.config.LocaleTable;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.metrics.StaffChatMetrics;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Mirrors local staff messages to an HTTP webhook (Discord, Slack or anything taking a JSON post).
+// Messages wait in a bounded queue and are posted in batches by one background thread; when the
+// queue is full the oldest message is dropped, so a slow or dead endpoint never holds up chat.
+public class WebhookRelay {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+
+    private static volatile BlockingQueue<WebhookMessage> queue;
+    private static volatile Thread sender;
+
+    // Utility class - prevent instantiation
+    private WebhookRelay() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    public static synchronized void start() {
+        ConfigSnapshot config = ModConfig.current();
+        if (!config.webhookEnabled || sender != null) {
+            return;
+        }
+
+        URI uri;
+        try {
+            uri = URI.create(config.webhookUrl);
+            if (uri.getScheme() == null || !uri.getScheme().startsWith("http")) {
+                throw new IllegalArgumentException("not an http(s) url");
+            }
+        } catch (IllegalArgumentException e) {
+            LOGGER.warn("Invalid webhook_url '{}', staff chat webhook disabled: {}", config.webhookUrl, e.getMessage());
+            return;
+        }
+
+        BlockingQueue<WebhookMessage> created = new ArrayBlockingQueue<>(Math.max(1, config.webhookQueueCapacity));
+        Thread thread = new Thread(() -> sendLoop(created, uri, config), "eves-staff-chat-webhook");
+        thread.setDaemon(true);
+
+        queue = created;
+        sender = thread;
+        thread.start();
+        LOGGER.info("Staff chat webhook relay started");
+    }
+
+    // Gives the sender one timeout to post what is still queued
+    public static synchronized void stop() {
+        queue = null;
+
+        Thread thread = sender;
+        sender = null;
+        if (thread == null) {
+            return;
+        }
+
+        thread.interrupt();
+        try {
+            thread.join(Math.max(0, ModConfig.current().webhookTimeoutMillis) + 1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static synchronized void restart() {
+        stop();
+        start();
+    }
+
+    // Queue a locally sent message for the webhook. Never blocks; drops the oldest queued message when full.
+    public static void publish(String channel, String senderName, String text) {
+        BlockingQueue<WebhookMessage> current = queue;
+        if (current == null) {
+            return;
+        }
+
+        WebhookMessage message = new WebhookMessage(channel, senderName, text);
+        while (!current.offer(message)) {
+            if (current.poll() != null) {
+                StaffChatMetrics.WEBHOOK_DROPPED.increment();
+            }
+        }
+    }
+
+    // Waits for the first message, then collects more until the batch is full or the flush interval passes
+    private static void sendLoop(BlockingQueue<WebhookMessage> source, URI uri, ConfigSnapshot config) {
+        int batchSize = Math.max(1, config.webhookBatchSize);
+        long flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, config.webhookFlushMillis));
+        List<WebhookMessage> batch = new ArrayList<>(batchSize);
+
+        try (HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(Math.max(1, config.webhookTimeoutMillis)))
+                .build()) {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    batch.add(source.take());
+                    long deadline = System.nanoTime() + flushNanos;
+                    while (batch.size() < batchSize) {
+                        if (source.drainTo(batch, batchSize - batch.size()) > 0) {
+                            continue;
+                        }
+                        long remaining = deadline - System.nanoTime();
+                        WebhookMessage next = remaining > 0 ? source.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+
+                    for (List<String> post : render(batch, config.webhookMaxContentChars)) {
+                        deliver(client, uri, config, post);
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException ignored) {
+                // Relay stopped - one attempt for what is left, no retries
+                source.drainTo(batch, batchSize - batch.size());
+                Thread.interrupted();
+                for (List<String> post : render(batch, config.webhookMaxContentChars)) {
+                    try {
+                        if (send(client, uri, config, post).statusCode() >= 300) {
+                            StaffChatMetrics.WEBHOOK_DROPPED.add(post.size());
+                        } else {
+                            StaffChatMetrics.WEBHOOK_SENT.add(post.size());
+                        }
+                    } catch (IOException | InterruptedException e) {
+                        StaffChatMetrics.WEBHOOK_DROPPED.add(post.size());
+                    }
+                }
+                int left = source.size();
+                if (left > 0) {
+                    StaffChatMetrics.WEBHOOK_DROPPED.add(left);
+                    LOGGER.warn("Staff chat webhook stopped with {} message(s) unsent", left);
+                }
+            }
+        }
+    }
+
+    // Retries connection errors, 429 and 5xx with exponential backoff; other responses are final
+    private static void deliver(HttpClient client, URI uri, ConfigSnapshot config, List<String> batch) throws InterruptedException {
+        int attempts = Math.max(1, config.webhookMaxAttempts);
+        long backoff = Math.max(1, config.webhookRetryBaseMillis);
+        for (int attempt = 1; ; attempt++) {
+            long retryAfter = -1;
+            String failure;
+            try {
+                HttpResponse<Void> response = send(client, uri, config, batch);
+                int status = response.statusCode();
+                if (status < 300) {
+                    StaffChatMetrics.WEBHOOK_SENT.add(batch.size());
+                    return;
+                }
+                if (status != 429 && status < 500) {
+                    StaffChatMetrics.WEBHOOK_DROPPED.add(batch.size());
+                    LOGGER.warn("Staff chat webhook rejected {} message(s) with HTTP {}", batch.size(), status);
+                    return;
+                }
+                failure = "HTTP " + status;
+                retryAfter = retryAfterMillis(response);
+            } catch (IOException e) {
+                failure = e.getMessage();
+            }
+
+            if (attempt >= attempts) {
+                StaffChatMetrics.WEBHOOK_DROPPED.add(batch.size());
+                LOGGER.warn("Staff chat webhook gave up on {} message(s) after {} attempts: {}", batch.size(), attempt, failure);
+                return;
+            }
+
+            // Random jitter so several servers sharing one endpoint don't retry in lockstep
+            long delay = retryAfter > 0 ? retryAfter : backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+            LOGGER.debug("Staff chat webhook attempt {} failed ({}), retrying in {}ms", attempt, failure, delay);
+            Thread.sleep(Math.min(delay, Math.max(1, config.webhookRetryMaxMillis)));
+            backoff = Math.min(backoff * 2, Math.max(1, config.webhookRetryMaxMillis));
+        }
+    }
+
+    // Only the delay-seconds form; an HTTP date falls back to the normal backoff
+    private static long retryAfterMillis(HttpResponse<Void> response) {
+        try {
+            return response.headers().firstValueAsLong("Retry-After").orElse(-1) * 1000;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static HttpResponse<Void> send(HttpClient client, URI uri, ConfigSnapshot config, List<String> lines) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofMillis(Math.max(1, config.webhookTimeoutMillis)))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body(config.webhookContentField, lines)))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    // One line per message, split into posts whose lines joined with newlines stay within maxChars
+    // (Discord rejects content over 2000). A line that is too long on its own is cut.
+    // webhook_entry is read per batch, so editing it needs no restart.
+    static List<List<String>> render(List<WebhookMessage> batch, int maxChars) {
+        String entryFormat = ModConfig.current().locales.get(LocaleTable.DEFAULT, "webhook_entry");
+        int limit = Math.max(1, maxChars);
+        List<List<String>> posts = new ArrayList<>();
+        List<String> post = new ArrayList<>();
+        int length = 0;
+        for (WebhookMessage message : batch) {
+            String line = cut(entryFormat
+                    .replace("%channel%", message.channel())
+                    .replace("%player%", message.senderName())
+                    .replace("%message%", message.text()), limit);
+            if (!post.isEmpty() && length + 1 + line.length() > limit) {
+                posts.add(post);
+                post = new ArrayList<>();
+                length = 0;
+            }
+            length += (post.isEmpty() ? 0 : 1) + line.length();
+            post.add(line);
+        }
+        if (!post.isEmpty()) {
+            posts.add(post);
+        }
+        return posts;
+    }
+
+    private static String cut(String line, int limit) {
+        if (line.length() <= limit) {
+            return line;
+        }
+        int end = limit - 1;
+        if (end > 0 && Character.isHighSurrogate(line.charAt(end - 1))) {
+            end--;
+        }
+        return line.substring(0, end) + "\u2026";
+    }
+
+    // The lines under webhook_content_field ("content" for Discord, "text" for Slack)
+    static String body(String contentField, List<String> lines) {
+        JsonObject body = new JsonObject();
+        body.addProperty(contentField, String.join("\n", lines));
+        // Watchlist alerts carry public chat, so nothing in the text may ping (@everyone, @here, users or roles).
+        // Discord reads this; other endpoints ignore the extra field.
+        JsonObject allowedMentions = new JsonObject();
+        allowedMentions.add("parse", new JsonArray());
+        body.add("allowed_mentions", allowedMentions);
+        return body.toString();
+    }
+}
@@ -0,0 +1,101 @@
+package io.github.evelynnlovesyou.evesstaffchat.soak;
+
+import com.mojang.authlib.GameProfile;
+import io.github.evelynnlovesyou.evesstaffchat.permissions.PermissionProvider;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.network.Connection;
+import net.minecraft.network.DisconnectionDetails;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.CommonListenerCookie;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+// Real ServerPlayers joined through PlayerList#placeNewPlayer, each on an in-memory channel, the
+// same way vanilla's GameTestHelper#makeMockServerPlayerInLevel does it. Staff are picked with a
+// fixed seed so every run has the same mix.
+final class SoakPlayers {
+
+    final List<ServerPlayer> staff = new ArrayList<>();
+    final List<ServerPlayer> regular = new ArrayList<>();
+    final List<ServerPlayer> toggled = new ArrayList<>();
+    private final List<EmbeddedChannel> channels = new ArrayList<>();
+    private final Set<UUID> staffIds = new HashSet<>();
+
+    // Grants every staff chat node to the soak staff and leaves everyone else to the next provider
+    final PermissionProvider permissions = new PermissionProvider() {
+        @Override
+        public String name() {
+            return "soak";
+        }
+
+        @Override
+        public TriState check(ServerPlayer player, String node) {
+            return staffIds.contains(player.getGameProfile().getId()) && node.startsWith("evesstaffchat.") ? TriState.TRUE : TriState.DEFAULT;
+        }
+    };
+
+    // Picks who is staff; call before join() and install the permissions in between
+    SoakPlayers(SoakSettings settings) {
+        Random random = new Random(0x50414BL);
+        for (int i = 0; i < settings.players(); i++) {
+            if (random.nextDouble() < settings.staffRatio()) {
+                staffIds.add(id(i));
+            }
+        }
+    }
+
+    void join(MinecraftServer server, ServerLevel level, SoakSettings settings) {
+        Random random = new Random(0x544F47L);
+        for (int i = 0; i < settings.players(); i++) {
+            GameProfile profile = new GameProfile(id(i), "soak" + i);
+            CommonListenerCookie cookie = CommonListenerCookie.createInitial(profile, false);
+            ServerPlayer player = new ServerPlayer(server, level, profile, cookie.clientInformation());
+            Connection connection = new Connection(PacketFlow.SERVERBOUND);
+            channels.add(new EmbeddedChannel(connection));
+            server.getPlayerList().placeNewPlayer(connection, player, cookie);
+
+            if (staffIds.contains(profile.getId())) {
+                staff.add(player);
+                if (random.nextDouble() < settings.toggledRatio()) {
+                    toggled.add(player);
+                }
+            } else {
+                regular.add(player);
+            }
+        }
+    }
+
+    // Packets pile up on the in-memory channels until released
+    void drain() {
+        for (EmbeddedChannel channel : channels) {
+            channel.releaseOutbound();
+        }
+    }
+
+    // Goes through the normal disconnect path so the mod cleans up like it would for real players
+    void leave() {
+        for (ServerPlayer player : staff) {
+            player.connection.onDisconnect(new DisconnectionDetails(Component.literal("Soak test finished")));
+        }
+        for (ServerPlayer player : regular) {
+            player.connection.onDisconnect(new DisconnectionDetails(Component.literal("Soak test finished")));
+        }
+        drain();
+        channels.forEach(EmbeddedChannel::finishAndReleaseAll);
+        channels.clear();
+    }
+
+    private static UUID id(int index) {
+        return new UUID(0x50414BL, index);
+    }
+}
@@ -0,0 +1,52 @@
+package io.github.evelynnlovesyou.evesstaffchat.soak;
+
+import java.nio.file.Path;
+
+// Read from -Devesstaffchat.soak.<name>=<value>, e.g. via ./gradlew runSoak -PsoakArgs="players=500 chatPerSecond=40".
+// Rates are per second of game time (20 ticks).
+record SoakSettings(
+        int players,
+        double staffRatio,
+        double toggledRatio,
+        double chatPerSecond,
+        double publicChatPerSecond,
+        double commandsPerSecond,
+        boolean earlyChatRouting,
+        int warmupTicks,
+        int baselineTicks,
+        int loadTicks,
+        double maxP99DeltaMillis,
+        Path report) {
+
+    private static final String PREFIX = "evesstaffchat.soak.";
+
+    static SoakSettings fromSystemProperties() {
+        return new SoakSettings(
+                Integer.getInteger(PREFIX + "players", 300),
+                doubleProperty("staffRatio", 0.1),
+                doubleProperty("toggledRatio", 0.5),
+                doubleProperty("chatPerSecond", 10),
+                doubleProperty("publicChatPerSecond", 20),
+                doubleProperty("commandsPerSecond", 5),
+                // Run once with each value to compare the early and the vanilla chat packet path
+                Boolean.parseBoolean(System.getProperty(PREFIX + "earlyChatRouting", "true")),
+                Integer.getInteger(PREFIX + "warmupTicks", 400),
+                Integer.getInteger(PREFIX + "baselineTicks", 600),
+                Integer.getInteger(PREFIX + "loadTicks", 1200),
+                // 0 only reports, anything above fails the test when the p99 tick gets that much slower
+                doubleProperty("maxP99DeltaMillis", 0),
+                Path.of(System.getProperty(PREFIX + "report", "soak-report.json")));
+    }
+
+    private static double doubleProperty(String name, double fallback) {
+        String value = System.getProperty(PREFIX + name);
+        if (value == null || value.isBlank()) {
+            return fallback;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+}
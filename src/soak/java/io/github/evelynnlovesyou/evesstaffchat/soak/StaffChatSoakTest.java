@@ -0,0 +1,296 @@
+package io.github.evelynnlovesyou.evesstaffchat.soak;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import io.github.evelynnlovesyou.evesstaffchat.config.ModConfig;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffChatManager;
+import io.github.evelynnlovesyou.evesstaffchat.manager.StaffRoster;
+import io.github.evelynnlovesyou.evesstaffchat.metrics.StaffChatMetrics;
+import io.github.evelynnlovesyou.evesstaffchat.permissions.OpPermissionProvider;
+import io.github.evelynnlovesyou.evesstaffchat.permissions.PermissionService;
+import io.github.evelynnlovesyou.evesstaffchat.pipeline.ChatPipeline;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
+import net.fabricmc.fabric.api.gametest.v1.FabricGameTest;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestAssertException;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.chat.LastSeenMessages;
+import net.minecraft.network.chat.PlayerChatMessage;
+import net.minecraft.network.protocol.game.ServerboundChatPacket;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Joins a few hundred fake players, then compares a baseline phase without staff chat traffic to
+// a load phase with toggled chat, /staffchat and public chat at the configured rates. Toggled chat
+// is sent as unsigned chat packets through the player's packet listener, so it takes the same path
+// as a real client's, including early routing. Results go to a JSON report; set maxP99DeltaMillis
+// to make the test fail when the p99 tick regresses. Run with ./gradlew runSoak.
+public class StaffChatSoakTest implements FabricGameTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("eves-staff-chat");
+    private static final String[] TEXTS = {
+        "checking the report on spawn",
+        "can someone tp to me",
+        "player in the nether is flying",
+        "restart in ten minutes",
+        "ok thanks",
+    };
+
+    private static volatile SoakRun run;
+
+    static {
+        ServerTickEvents.START_SERVER_TICK.register(server -> {
+            SoakRun current = run;
+            if (current != null) {
+                current.startTick();
+            }
+        });
+        ServerTickEvents.END_SERVER_TICK.register(server -> {
+            SoakRun current = run;
+            if (current != null) {
+                current.endTick();
+            }
+        });
+    }
+
+    @GameTest(template = EMPTY_STRUCTURE, timeoutTicks = 72000)
+    public void staffChatTickCost(GameTestHelper helper) {
+        SoakRun current = new SoakRun(helper.getLevel(), SoakSettings.fromSystemProperties());
+        run = current;
+        helper.startSequence()
+                .thenWaitUntil(() -> {
+                    if (!current.done) {
+                        throw new GameTestAssertException("Soak run in progress");
+                    }
+                })
+                .thenExecute(() -> {
+                    run = null;
+                    if (current.failure != null) {
+                        helper.fail(current.failure);
+                    }
+                })
+                .thenSucceed();
+    }
+
+    private enum Phase {
+        WARMUP, BASELINE, LOAD
+    }
+
+    // Server thread only
+    private static final class SoakRun {
+
+        private final MinecraftServer server;
+        private final SoakSettings settings;
+        private final SoakPlayers players;
+        private final Random random = new Random(0x534F414BL);
+        private final String[] commands = new String[TEXTS.length];
+        private final boolean earlyChatRoutingBefore;
+        private Phase phase = Phase.WARMUP;
+        private int phaseTicks;
+        private TickRecorder recorder;
+        private TickRecorder baseline;
+        private long[] countersAtLoad;
+        private double chatDue;
+        private double publicDue;
+        private double commandsDue;
+        // Server thread time spent handling toggled chat packets during the load phase
+        private long chatPacketNanos;
+        private long chatPackets;
+        private volatile boolean done;
+        private volatile String failure;
+
+        SoakRun(ServerLevel level, SoakSettings settings) {
+            this.server = level.getServer();
+            this.settings = settings;
+            for (int i = 0; i < TEXTS.length; i++) {
+                commands[i] = ModConfig.getDefaultChannel().command() + " " + TEXTS[i];
+            }
+
+            earlyChatRoutingBefore = ModConfig.current().earlyChatRouting;
+            ModConfig.setSetting("early_chat_routing", settings.earlyChatRouting());
+
+            players = new SoakPlayers(settings);
+            PermissionService.useProviders(players.permissions, new OpPermissionProvider());
+            players.join(server, level, settings);
+            StaffRoster.rebuild(server);
+            for (ServerPlayer player : players.toggled) {
+                StaffChatManager.toggle(player, ModConfig.getDefaultChannel());
+            }
+            LOGGER.info("Soak test joined {} players ({} staff, {} toggled)",
+                    settings.players(), players.staff.size(), players.toggled.size());
+        }
+
+        void startTick() {
+            if (done) {
+                return;
+            }
+            if (recorder != null) {
+                recorder.tickStarted();
+            }
+            if (phase != Phase.BASELINE) {
+                drive();
+            }
+        }
+
+        void endTick() {
+            if (done) {
+                return;
+            }
+            players.drain();
+            phaseTicks++;
+            if (recorder != null) {
+                recorder.tickEnded();
+            }
+
+            if (phase == Phase.WARMUP && phaseTicks >= settings.warmupTicks()) {
+                enter(Phase.BASELINE);
+                recorder = new TickRecorder("baseline", Math.max(1, settings.baselineTicks()));
+            } else if (phase == Phase.BASELINE && recorder.isFull()) {
+                recorder.finish();
+                baseline = recorder;
+                enter(Phase.LOAD);
+                countersAtLoad = counters();
+                recorder = new TickRecorder("load", Math.max(1, settings.loadTicks()));
+            } else if (phase == Phase.LOAD && recorder.isFull()) {
+                recorder.finish();
+                complete(recorder);
+            }
+        }
+
+        private void enter(Phase next) {
+            phase = next;
+            phaseTicks = 0;
+        }
+
+        // Spreads each rate evenly over the ticks of a second
+        private void drive() {
+            chatDue += settings.chatPerSecond() / 20.0;
+            publicDue += settings.publicChatPerSecond() / 20.0;
+            commandsDue += settings.commandsPerSecond() / 20.0;
+
+            for (; chatDue >= 1; chatDue--) {
+                ServerPlayer sender = pick(players.toggled);
+                if (sender != null) {
+                    sendChatPacket(sender, TEXTS[random.nextInt(TEXTS.length)]);
+                }
+            }
+            for (; publicDue >= 1; publicDue--) {
+                ServerPlayer sender = pick(players.regular);
+                if (sender != null) {
+                    ChatPipeline.allow(PlayerChatMessage.unsigned(sender.getUUID(), TEXTS[random.nextInt(TEXTS.length)]), sender);
+                }
+            }
+            for (; commandsDue >= 1; commandsDue--) {
+                ServerPlayer sender = pick(players.staff);
+                if (sender != null) {
+                    server.getCommands().performPrefixedCommand(sender.createCommandSourceStack(), commands[random.nextInt(commands.length)]);
+                }
+            }
+        }
+
+        // handleChat normally runs on the network thread; here its server.execute runs inline, so the
+        // timing covers the whole server side of the packet up to the dispatcher hand-off
+        private void sendChatPacket(ServerPlayer sender, String text) {
+            ServerboundChatPacket packet = new ServerboundChatPacket(text, Instant.now(), 0L, null,
+                    new LastSeenMessages.Update(0, new BitSet()));
+            long start = System.nanoTime();
+            sender.connection.handleChat(packet);
+            if (phase == Phase.LOAD) {
+                chatPacketNanos += System.nanoTime() - start;
+                chatPackets++;
+            }
+        }
+
+        private ServerPlayer pick(List<ServerPlayer> from) {
+            return from.isEmpty() ? null : from.get(random.nextInt(from.size()));
+        }
+
+        private static long[] counters() {
+            return new long[] {
+                StaffChatMetrics.COMMAND_MESSAGES.sum(),
+                StaffChatMetrics.TOGGLED_MESSAGES.sum(),
+                StaffChatMetrics.RATE_LIMITED.sum(),
+                StaffChatMetrics.RECIPIENTS.count(),
+                StaffChatMetrics.RECIPIENTS.sum(),
+            };
+        }
+
+        private void complete(TickRecorder load) {
+            long[] counters = counters();
+            for (ServerPlayer player : players.toggled) {
+                StaffChatManager.toggle(player, ModConfig.getDefaultChannel());
+            }
+            players.leave();
+            ModConfig.setSetting("early_chat_routing", earlyChatRoutingBefore);
+            PermissionService.restart(server);
+            StaffRoster.rebuild(server);
+
+            double p99Delta = load.msptQuantile(0.99) - baseline.msptQuantile(0.99);
+            JsonObject report = report(load, counters, p99Delta);
+            try {
+                Path path = settings.report().toAbsolutePath();
+                Files.createDirectories(path.getParent());
+                Files.writeString(path, new GsonBuilder().setPrettyPrinting().create().toJson(report));
+                LOGGER.info("Soak test report written to {}", path);
+            } catch (IOException e) {
+                failure = "Could not write soak report: " + e.getMessage();
+            }
+
+            LOGGER.info(String.format(Locale.ROOT, "Soak test: p50 %.2fms -> %.2fms, p99 %.2fms -> %.2fms",
+                    baseline.msptQuantile(0.5), load.msptQuantile(0.5), baseline.msptQuantile(0.99), load.msptQuantile(0.99)));
+            if (failure == null && settings.maxP99DeltaMillis() > 0 && p99Delta > settings.maxP99DeltaMillis()) {
+                failure = String.format(Locale.ROOT, "p99 tick time grew by %.2fms under staff chat load (limit %.2fms)",
+                        p99Delta, settings.maxP99DeltaMillis());
+            }
+            done = true;
+        }
+
+        private JsonObject report(TickRecorder load, long[] counters, double p99Delta) {
+            JsonObject config = new JsonObject();
+            config.addProperty("players", settings.players());
+            config.addProperty("staff", players.staff.size());
+            config.addProperty("toggled", players.toggled.size());
+            config.addProperty("chat_per_second", settings.chatPerSecond());
+            config.addProperty("public_chat_per_second", settings.publicChatPerSecond());
+            config.addProperty("commands_per_second", settings.commandsPerSecond());
+            config.addProperty("early_chat_routing", settings.earlyChatRouting());
+            config.addProperty("warmup_ticks", settings.warmupTicks());
+
+            JsonObject messages = new JsonObject();
+            messages.addProperty("command", counters[0] - countersAtLoad[0]);
+            messages.addProperty("toggled", counters[1] - countersAtLoad[1]);
+            messages.addProperty("rate_limited", counters[2] - countersAtLoad[2]);
+            messages.addProperty("delivered", counters[3] - countersAtLoad[3]);
+            messages.addProperty("recipients", counters[4] - countersAtLoad[4]);
+            messages.addProperty("toggled_chat_packets", chatPackets);
+            messages.addProperty("toggled_chat_packet_micros_mean", chatPackets == 0 ? 0 : chatPacketNanos / 1e3 / chatPackets);
+
+            JsonObject delta = new JsonObject();
+            delta.addProperty("mspt_p50", load.msptQuantile(0.5) - baseline.msptQuantile(0.5));
+            delta.addProperty("mspt_p99", p99Delta);
+            delta.addProperty("server_cpu_ms_p99", load.cpuQuantile(0.99) - baseline.cpuQuantile(0.99));
+
+            JsonObject report = new JsonObject();
+            report.addProperty("version", 1);
+            report.add("settings", config);
+            report.add(baseline.name(), baseline.toJson());
+            report.add(load.name(), load.toJson());
+            report.add("delta", delta);
+            report.add("messages", messages);
+            return report;
+        }
+    }
+}
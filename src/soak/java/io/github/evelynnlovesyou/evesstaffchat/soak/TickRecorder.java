@@ -0,0 +1,109 @@
+package io.github.evelynnlovesyou.evesstaffchat.soak;
+
+import com.google.gson.JsonObject;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+// Tick durations, server thread CPU time and heap allocation for one phase of the soak run.
+// Staff chat hands delivery back to the server thread with server.execute, and those tasks run
+// between ticks, so the CPU time per tick interval (start to next start) is recorded alongside
+// the vanilla-style tick duration. Server thread only.
+final class TickRecorder {
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final String name;
+    private final long[] tickNanos;
+    private final long[] cpuNanos;
+    private final long serverThreadId;
+    private final long serverBytesAtStart;
+    private final long totalBytesAtStart;
+    private int ticks;
+    private int cpuIntervals;
+    private long tickStart;
+    private long lastCpu = -1;
+    private long serverBytes = -1;
+    private long totalBytes = -1;
+
+    TickRecorder(String name, int capacity) {
+        this.name = name;
+        this.tickNanos = new long[capacity];
+        this.cpuNanos = new long[capacity];
+        this.serverThreadId = Thread.currentThread().threadId();
+        this.serverBytesAtStart = THREADS.getThreadAllocatedBytes(serverThreadId);
+        this.totalBytesAtStart = THREADS.getTotalThreadAllocatedBytes();
+    }
+
+    void tickStarted() {
+        long cpu = THREADS.getCurrentThreadCpuTime();
+        if (lastCpu >= 0 && cpuIntervals < cpuNanos.length) {
+            cpuNanos[cpuIntervals++] = cpu - lastCpu;
+        }
+        lastCpu = cpu;
+        tickStart = System.nanoTime();
+    }
+
+    void tickEnded() {
+        if (ticks < tickNanos.length) {
+            tickNanos[ticks++] = System.nanoTime() - tickStart;
+        }
+    }
+
+    boolean isFull() {
+        return ticks == tickNanos.length;
+    }
+
+    void finish() {
+        serverBytes = THREADS.getThreadAllocatedBytes(serverThreadId) - serverBytesAtStart;
+        totalBytes = THREADS.getTotalThreadAllocatedBytes() - totalBytesAtStart;
+    }
+
+    String name() {
+        return name;
+    }
+
+    double msptQuantile(double q) {
+        return quantileMillis(tickNanos, ticks, q);
+    }
+
+    double cpuQuantile(double q) {
+        return quantileMillis(cpuNanos, cpuIntervals, q);
+    }
+
+    // Nearest rank
+    private static double quantileMillis(long[] values, int count, double q) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(values, count);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(q * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, rank))] / 1e6;
+    }
+
+    JsonObject toJson() {
+        long sum = 0;
+        long max = 0;
+        for (int i = 0; i < ticks; i++) {
+            sum += tickNanos[i];
+            max = Math.max(max, tickNanos[i]);
+        }
+
+        JsonObject json = new JsonObject();
+        json.addProperty("ticks", ticks);
+        json.addProperty("mspt_mean", ticks == 0 ? 0 : sum / 1e6 / ticks);
+        json.addProperty("mspt_p50", msptQuantile(0.5));
+        json.addProperty("mspt_p95", msptQuantile(0.95));
+        json.addProperty("mspt_p99", msptQuantile(0.99));
+        json.addProperty("mspt_max", max / 1e6);
+        json.addProperty("server_cpu_ms_p50", cpuQuantile(0.5));
+        json.addProperty("server_cpu_ms_p99", cpuQuantile(0.99));
+        // The JVM may report -1 when allocation tracking is unsupported
+        json.addProperty("server_thread_alloc_bytes", serverBytes);
+        json.addProperty("server_thread_alloc_bytes_per_tick", ticks == 0 || serverBytes < 0 ? 0 : (double) serverBytes / ticks);
+        json.addProperty("total_alloc_bytes", totalBytes);
+        json.addProperty("total_alloc_bytes_per_tick", ticks == 0 || totalBytes < 0 ? 0 : (double) totalBytes / ticks);
+        return json;
+    }
+}
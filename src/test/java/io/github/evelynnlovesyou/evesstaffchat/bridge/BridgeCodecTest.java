@@ -0,0 +1,73 @@
+package io.github.evelynnlovesyou.evesstaffchat.bridge;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BridgeCodecTest {
+
+    private static final UUID SENDER = UUID.fromString("3f2a1c4e-9b7d-4e21-8a6f-0c5d2e7b9a13");
+
+    @Test
+    void batchSurvivesRoundTrip() throws IOException {
+        List<BridgeMessage> batch = List.of(
+                new BridgeMessage("lobby", 1, 1000, SENDER, "Alice", "staff", "hello"),
+                new BridgeMessage("survival", Long.MAX_VALUE, 2000, new UUID(0L, 0L), "Bob", "admin", "ünïcödé ✓"),
+                new BridgeMessage("", 3, 3000, SENDER, "", "staff", ""));
+        assertEquals(batch, BridgeCodec.decode(payload(BridgeCodec.encode(batch))));
+    }
+
+    @Test
+    void lengthPrefixCoversTheRestOfTheFrame() throws IOException {
+        byte[] frame = BridgeCodec.encode(List.of(new BridgeMessage("lobby", 1, 1000, SENDER, "Alice", "staff", "hello")));
+        assertEquals(frame.length - 4, ByteBuffer.wrap(frame).getInt());
+    }
+
+    @Test
+    void emptyBatchRoundTrips() throws IOException {
+        assertTrue(BridgeCodec.decode(payload(BridgeCodec.encode(List.of()))).isEmpty());
+    }
+
+    @Test
+    void largestBatchRoundTrips() throws IOException {
+        List<BridgeMessage> batch = new ArrayList<>();
+        for (int i = 0; i < 0xFFFF; i++) {
+            batch.add(new BridgeMessage("a", i, 0, SENDER, "b", "c", ""));
+        }
+        assertEquals(0xFFFF, BridgeCodec.decode(payload(BridgeCodec.encode(batch))).size());
+    }
+
+    @Test
+    void batchTooLargeForTheCountIsRefused() {
+        List<BridgeMessage> batch = Collections.nCopies(0x10000, new BridgeMessage("a", 1, 0, SENDER, "b", "c", ""));
+        assertThrows(IOException.class, () -> BridgeCodec.encode(batch));
+    }
+
+    @Test
+    void unknownVersionIsRejected() throws IOException {
+        byte[] payload = payload(BridgeCodec.encode(List.of()));
+        payload[0] = 99;
+        assertThrows(IOException.class, () -> BridgeCodec.decode(payload));
+    }
+
+    @Test
+    void truncatedFrameIsRejected() throws IOException {
+        byte[] payload = payload(BridgeCodec.encode(List.of(new BridgeMessage("lobby", 1, 1000, SENDER, "Alice", "staff", "hello"))));
+        assertThrows(IOException.class, () -> BridgeCodec.decode(Arrays.copyOf(payload, payload.length - 3)));
+    }
+
+    // What the transport hands to decode: the frame without its length prefix
+    private static byte[] payload(byte[] frame) {
+        return Arrays.copyOfRange(frame, 4, frame.length);
+    }
+}
@@ -0,0 +1,58 @@
+package io.github.evelynnlovesyou.evesstaffchat.bridge;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SeenWindowTest {
+
+    @Test
+    void duplicatesAreRejected() {
+        SeenWindow window = new SeenWindow(100, 0);
+        assertFalse(window.accept(100, 0));
+        assertTrue(window.accept(101, 0));
+        assertFalse(window.accept(101, 0));
+    }
+
+    @Test
+    void olderMessageArrivingLateIsAcceptedOnce() {
+        SeenWindow window = new SeenWindow(100, 0);
+        assertTrue(window.accept(102, 0));
+        assertTrue(window.accept(101, 0));
+        assertFalse(window.accept(101, 0));
+        assertTrue(window.accept(99, 0));
+    }
+
+    @Test
+    void skippedSlotsAreFreedWhenTheWindowMoves() {
+        SeenWindow window = new SeenWindow(100, 0);
+        assertTrue(window.accept(100 + SeenWindow.WINDOW - 1, 0));
+        // 100 + WINDOW reuses the slot of 100, which must not count as seen
+        assertTrue(window.accept(100 + SeenWindow.WINDOW + 5, 0));
+        assertTrue(window.accept(100 + SeenWindow.WINDOW, 0));
+        assertFalse(window.accept(100 + SeenWindow.WINDOW - 1, 0));
+    }
+
+    @Test
+    void anythingOlderThanTheWindowIsRejected() {
+        SeenWindow window = new SeenWindow(5000, 0);
+        assertFalse(window.accept(5000 - SeenWindow.WINDOW, 0));
+        assertTrue(window.accept(5000 - SeenWindow.WINDOW + 1, 0));
+    }
+
+    @Test
+    void largeJumpClearsEverything() {
+        SeenWindow window = new SeenWindow(100, 0);
+        assertTrue(window.accept(100 + 10 * SeenWindow.WINDOW, 0));
+        assertTrue(window.accept(100 + 10 * SeenWindow.WINDOW - 1, 0));
+    }
+
+    @Test
+    void idleAfterLastUse() {
+        SeenWindow window = new SeenWindow(1, 10);
+        window.accept(2, 50);
+        assertFalse(window.idleSince(40));
+        assertTrue(window.idleSince(60));
+    }
+}
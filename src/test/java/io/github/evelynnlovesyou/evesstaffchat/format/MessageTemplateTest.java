@@ -0,0 +1,121 @@
+package io.github.evelynnlovesyou.evesstaffchat.format;
+
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.ClickEvent;
+import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.HoverEvent;
+import net.minecraft.network.chat.MutableComponent;
+import net.minecraft.network.chat.Style;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageTemplateTest {
+
+    private static final UUID SENDER = UUID.fromString("3f2a1c4e-9b7d-4e21-8a6f-0c5d2e7b9a13");
+
+    @Test
+    void placeholdersAreFilledIn() {
+        MutableComponent rendered = render("[%channel%@%server%/%world%] %player%: %message%", "hi");
+        assertEquals("[staff@lobby/world] Alice: hi", rendered.getString());
+        // Nothing styled, so it renders as a single literal
+        assertTrue(rendered.getSiblings().isEmpty());
+    }
+
+    @Test
+    void unknownPlaceholdersAndTagsStayText() {
+        assertEquals("%nope% 100% <nope>hi", render("%nope% 100% <nope>%message%", "hi").getString());
+    }
+
+    @Test
+    void escapedBracketIsLiteral() {
+        MutableComponent rendered = render("\\<red>%message%", "hi");
+        assertEquals("<red>hi", rendered.getString());
+        assertTrue(rendered.getSiblings().isEmpty());
+    }
+
+    @Test
+    void closingTagPopsTheInnermostStyle() {
+        List<Component> parts = render("<red><bold>A</bold>B</>C", "").getSiblings();
+        assertEquals(3, parts.size());
+        assertText(parts.get(0), "A");
+        assertTrue(parts.get(0).getStyle().isBold());
+        assertColor(parts.get(0).getStyle(), ChatFormatting.RED);
+        assertText(parts.get(1), "B");
+        assertFalse(parts.get(1).getStyle().isBold());
+        assertColor(parts.get(1).getStyle(), ChatFormatting.RED);
+        assertText(parts.get(2), "C");
+        assertTrue(parts.get(2).getStyle().isEmpty());
+    }
+
+    @Test
+    void resetClosesEverything() {
+        List<Component> parts = render("<gold><italic><underlined>A<reset>B", "").getSiblings();
+        assertEquals(2, parts.size());
+        assertTrue(parts.get(0).getStyle().isItalic());
+        assertTrue(parts.get(0).getStyle().isUnderlined());
+        assertColor(parts.get(0).getStyle(), ChatFormatting.GOLD);
+        assertTrue(parts.get(1).getStyle().isEmpty());
+    }
+
+    @Test
+    void hexColorsAreParsed() {
+        List<Component> parts = render("<#ff8800>A", "").getSiblings();
+        assertEquals(0xFF8800, parts.get(0).getStyle().getColor().getValue());
+    }
+
+    @Test
+    void hoverAndClickFillPlaceholders() {
+        List<Component> parts = render("<hover:Sent by %uuid%><click:suggest:/msg %player% >%player%</></>: %message%", "hi").getSiblings();
+        assertEquals(3, parts.size());
+        Style style = parts.get(0).getStyle();
+        assertText(parts.get(0), "Alice");
+        assertEquals("Sent by " + SENDER, style.getHoverEvent().getValue(HoverEvent.Action.SHOW_TEXT).getString());
+        assertEquals(ClickEvent.Action.SUGGEST_COMMAND, style.getClickEvent().getAction());
+        assertEquals("/msg Alice ", style.getClickEvent().getValue());
+        assertText(parts.get(1), ": ");
+        assertText(parts.get(2), "hi");
+        assertNull(parts.get(2).getStyle().getHoverEvent());
+        assertNull(parts.get(2).getStyle().getClickEvent());
+    }
+
+    @Test
+    void staticHoverAndClickNeedNoPlaceholders() {
+        Style style = render("<click:url:https://example.com><hover:Open>link", "").getSiblings().get(0).getStyle();
+        assertEquals("Open", style.getHoverEvent().getValue(HoverEvent.Action.SHOW_TEXT).getString());
+        assertEquals(ClickEvent.Action.OPEN_URL, style.getClickEvent().getAction());
+        assertEquals("https://example.com", style.getClickEvent().getValue());
+    }
+
+    @Test
+    void valuesCannotInjectMarkupOrPlaceholders() {
+        List<Component> parts = render("<gray>%message%", "<red><click:run:/op Mallory>%player%").getSiblings();
+        assertEquals(1, parts.size());
+        assertText(parts.get(0), "<red><click:run:/op Mallory>%player%");
+        assertColor(parts.get(0).getStyle(), ChatFormatting.GRAY);
+        assertNull(parts.get(0).getStyle().getClickEvent());
+    }
+
+    @Test
+    void sourceIsKept() {
+        assertEquals("<red>%message%", MessageTemplate.compile("<red>%message%").source());
+    }
+
+    private static MutableComponent render(String format, String message) {
+        return MessageTemplate.compile(format).render(new MessageContext("Alice", SENDER, "staff", "lobby", "world", 0, message));
+    }
+
+    private static void assertText(Component component, String text) {
+        assertEquals(text, component.getString());
+    }
+
+    private static void assertColor(Style style, ChatFormatting formatting) {
+        assertEquals(formatting.getColor(), style.getColor().getValue());
+    }
+}
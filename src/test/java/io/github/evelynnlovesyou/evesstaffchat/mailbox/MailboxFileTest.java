@@ -0,0 +1,96 @@
+package io.github.evelynnlovesyou.evesstaffchat.mailbox;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MailboxFileTest {
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void entriesSurviveReopen() throws IOException {
+        Path path = folder.resolve("mailbox.bin");
+        MailboxFile file = MailboxFile.open(path, 4096);
+        assertEquals(1, file.append(1000, "staff", "Alice", "hello"));
+        assertEquals(2, file.append(2000, "admin", "Bob", "ünïcödé"));
+        file.close();
+
+        MailboxFile reopened = MailboxFile.open(path, 4096);
+        List<MailboxEntry> entries = entries(reopened);
+        assertEquals(List.of(
+                new MailboxEntry(1, 1000, "staff", "Alice", "hello"),
+                new MailboxEntry(2, 2000, "admin", "Bob", "ünïcödé")), entries);
+        assertEquals(2, reopened.lastSequence());
+        assertEquals(3, reopened.append(3000, "staff", "Alice", "again"));
+        reopened.close();
+    }
+
+    @Test
+    void oddSizeKeepsEntriesOnReopen() throws IOException {
+        Path path = folder.resolve("mailbox.bin");
+        MailboxFile file = MailboxFile.open(path, 4097);
+        file.append(1000, "staff", "Alice", "hello");
+        file.close();
+
+        MailboxFile reopened = MailboxFile.open(path, 4097);
+        assertEquals(1, entries(reopened).size());
+        reopened.close();
+    }
+
+    @Test
+    void sizeChangeStartsOver() throws IOException {
+        Path path = folder.resolve("mailbox.bin");
+        MailboxFile file = MailboxFile.open(path, 4096);
+        file.append(1000, "staff", "Alice", "hello");
+        file.close();
+
+        MailboxFile resized = MailboxFile.open(path, 8192);
+        assertTrue(entries(resized).isEmpty());
+        assertEquals(0, resized.lastSequence());
+        resized.close();
+    }
+
+    @Test
+    void fullHalfDropsOldestEntries() throws IOException {
+        Path path = folder.resolve("mailbox.bin");
+        MailboxFile file = MailboxFile.open(path, 4096);
+        String text = "x".repeat(100);
+        for (int i = 1; i <= 100; i++) {
+            assertEquals(i, file.append(i, "staff", "Alice", text));
+        }
+        file.close();
+
+        MailboxFile reopened = MailboxFile.open(path, 4096);
+        List<MailboxEntry> entries = entries(reopened);
+        assertTrue(entries.get(0).sequence() > 1);
+        for (int i = 0; i < entries.size(); i++) {
+            assertEquals(100 - entries.size() + 1 + i, entries.get(i).sequence());
+            assertEquals(text, entries.get(i).text());
+        }
+        assertEquals(100, reopened.lastSequence());
+        reopened.close();
+    }
+
+    @Test
+    void oversizedEntryIsRejected() throws IOException {
+        MailboxFile file = MailboxFile.open(folder.resolve("mailbox.bin"), 4096);
+        assertEquals(-1, file.append(1000, "staff", "Alice", "x".repeat(4096)));
+        assertTrue(entries(file).isEmpty());
+        file.close();
+    }
+
+    private static List<MailboxEntry> entries(MailboxFile file) throws IOException {
+        List<MailboxEntry> entries = new ArrayList<>();
+        file.forEach(entries::add);
+        return entries;
+    }
+}
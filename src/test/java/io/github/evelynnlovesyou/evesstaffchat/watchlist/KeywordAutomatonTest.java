@@ -0,0 +1,98 @@
+package io.github.evelynnlovesyou.evesstaffchat.watchlist;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeywordAutomatonTest {
+
+    @Test
+    void overlappingTermsAreAllReported() {
+        // The classic example: "she" ends inside "hers", and "he" is only reachable through output links
+        KeywordAutomaton automaton = KeywordAutomaton.compile(List.of("he", "she", "his", "hers"));
+        assertEquals(List.of("1-4", "2-4", "2-6"), matches(automaton, "ushers"));
+    }
+
+    @Test
+    void failLinksContinueInsideAnotherTerm() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(List.of("abcd", "bcx"));
+        assertEquals(List.of("1-4"), matches(automaton, "abcx"));
+        assertEquals(List.of("0-4"), matches(automaton, "abcd"));
+    }
+
+    @Test
+    void repeatedCharsRestartCorrectly() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(List.of("aab"));
+        assertEquals(List.of("2-5"), matches(automaton, "aaaab"));
+    }
+
+    @Test
+    void caseAndLeetspeakAreFolded() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(List.of("hacks"));
+        assertEquals(List.of("4-9"), matches(automaton, "get H4CK5 here"));
+        assertEquals(List.of("0-5"), matches(automaton, "hacks"));
+    }
+
+    @Test
+    void leetspeakInTermsIsFoldedToo() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(List.of("h4x"));
+        assertEquals(List.of("0-3"), matches(automaton, "HAX"));
+    }
+
+    @Test
+    void offsetsPointAtTheOriginalChars() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(List.of("ass"));
+        boolean[] hits = automaton.matchedChars("you @$$", true);
+        assertNotNull(hits);
+        for (int i = 0; i < hits.length; i++) {
+            assertEquals(i >= 4, hits[i], "char " + i);
+        }
+    }
+
+    @Test
+    void wholeWordsNeedBoundariesOnBothSides() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(List.of("ass"));
+        assertNull(automaton.matchedChars("class", true));
+        assertNull(automaton.matchedChars("assist", true));
+        assertNotNull(automaton.matchedChars("class", false));
+        assertNotNull(automaton.matchedChars("ass", true));
+        assertNotNull(automaton.matchedChars("what an ass.", true));
+    }
+
+    @Test
+    void onlyWholeWordMatchesAreHighlighted() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(List.of("hack"));
+        boolean[] hits = automaton.matchedChars("hacker hack", true);
+        assertNotNull(hits);
+        for (int i = 0; i < hits.length; i++) {
+            assertEquals(i >= 7, hits[i], "char " + i);
+        }
+    }
+
+    @Test
+    void noMatchReturnsNull() {
+        KeywordAutomaton automaton = KeywordAutomaton.compile(List.of("hacks"));
+        assertNull(automaton.matchedChars("nothing to see", false));
+    }
+
+    @Test
+    void emptyTermsAreIgnored() {
+        assertTrue(KeywordAutomaton.compile(List.of("")).isEmpty());
+        assertTrue(KeywordAutomaton.compile(List.of()).isEmpty());
+        assertFalse(KeywordAutomaton.compile(List.of("", "x")).isEmpty());
+    }
+
+    private static List<String> matches(KeywordAutomaton automaton, String text) {
+        List<String> found = new ArrayList<>();
+        automaton.scan(text, (start, end) -> found.add(start + "-" + end));
+        found.sort(null);
+        return found;
+    }
+}